@@ -1,15 +1,41 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
 /**
  * Main class to demonstrate all PRVMS features with comprehensive test cases.
  * <p>Test Coverage:
  * - Basic functionality (queue, history, cycles)
  * - Boundary conditions (empty queue, null inputs, invalid files)
  * - Error handling (invalid age, malformed CSV)
+ * - Feature checks print [PASS]/[FAIL] lines and a failure count at the end
  * </p>
  * 
  * @author HD Developer
  * @version 1.0
  */
 public class AssignmentTwo {
+    private static int failures; // Feature checks that did not hold
+
     public static void main(String[] args) {
         System.out.println("==================================== PROG2004 A2 - ENHANCED TEST SUITE ====================================");
         
@@ -64,6 +90,9 @@ public class AssignmentTwo {
         sortingRide.sortHistory();
         System.out.println("\nAfter sorting (tiebreaker: name):");
         sortingRide.printHistory();
+        sortingRide.unsortHistory();
+        System.out.println("\nBack in ride order (sorted index dropped):");
+        sortingRide.printHistory();
 
         // ------------------------------ Test 5: Invalid CSV Import ------------------------------
         System.out.println("\n==================================== TEST 5: INVALID CSV IMPORT ====================================");
@@ -94,9 +123,1130 @@ public class AssignmentTwo {
         String csvPath = "thunderbolt_history.csv";
         Utils.exportHistory(thunderbolt.getRideHistory(), csvPath);
         Ride importedRide = new Ride("R007", "Imported Thunderbolt", operator, 3);
-        importedRide.getRideHistory().addAll(Utils.importHistory(csvPath));
+        importedRide.addAllToHistory(Utils.importHistory(csvPath));
         importedRide.printHistory();
 
+        // ------------------------------ Test 8: Concurrent Gates (MPSC Ring) ------------------------------
+        System.out.println("\n==================================== TEST 8: CONCURRENT GATES ====================================");
+        testConcurrentRing();
+        testConcurrentRemoval(operator);
+
+        // ------------------------------ Test 9: Indexed Queues (Visitors Without IDs) ------------------------------
+        System.out.println("\n==================================== TEST 9: INDEXED QUEUES ====================================");
+        testIndexedQueues();
+
+        // ------------------------------ Test 10: Virtual Queue Window Cap ------------------------------
+        System.out.println("\n==================================== TEST 10: VIRTUAL QUEUE WINDOWS ====================================");
+        testVirtualQueueWindows();
+
+        // ------------------------------ Test 11: Journal Crash Recovery ------------------------------
+        System.out.println("\n==================================== TEST 11: JOURNAL RECOVERY ====================================");
+        testJournalRecovery(operator);
+
+        // ------------------------------ Test 12: Dispatcher Skips Past Slots ------------------------------
+        System.out.println("\n==================================== TEST 12: DISPATCHER MISSED SLOTS ====================================");
+        testDispatcherSkipsPastSlots(operator);
+
+        // ------------------------------ Test 13: Monte Carlo VIP Axis ------------------------------
+        System.out.println("\n==================================== TEST 13: MONTE CARLO VIP RATIO ====================================");
+        testSweepVipAxis();
+
+        // ------------------------------ Test 14: Batch Events ------------------------------
+        System.out.println("\n==================================== TEST 14: BATCH EVENTS ====================================");
+        testBatchEvents(operator);
+
+        // ------------------------------ Test 15: Per-Ride Visitor Registry ------------------------------
+        System.out.println("\n==================================== TEST 15: VISITOR REGISTRY ====================================");
+        testVisitorRegistry(operator);
+
+        // ------------------------------ Test 16: hasRidden While Cycles Run ------------------------------
+        System.out.println("\n==================================== TEST 16: CONCURRENT HAS-RIDDEN ====================================");
+        testConcurrentHasRidden();
+
+        // ------------------------------ Test 17: Bloom Filter Budget & Quiet hasRidden ------------------------------
+        System.out.println("\n==================================== TEST 17: BLOOM BUDGET & QUIET LOOKUPS ====================================");
+        testBloomBudgetAndQuietLookups(operator);
+
+        // ------------------------------ Test 18: Primitive Sorted Index ------------------------------
+        System.out.println("\n==================================== TEST 18: SORTED HISTORY INDEX ====================================");
+        testSortedIndex(operator);
+
+        // ------------------------------ Test 19: Queue Positions Across Window Rebuilds ------------------------------
+        System.out.println("\n==================================== TEST 19: QUEUE POSITIONS ====================================");
+        testQueuePositions(operator);
+
+        // ------------------------------ Test 20: VIP Priority Lanes ------------------------------
+        System.out.println("\n==================================== TEST 20: PRIORITY LANES ====================================");
+        testPriorityLanes(operator);
+
+        // ------------------------------ Test 21: Bulk Enqueue ------------------------------
+        System.out.println("\n==================================== TEST 21: BULK ENQUEUE ====================================");
+        testBulkEnqueue(operator);
+
+        // ------------------------------ Test 22: Bounded Queue Backpressure ------------------------------
+        System.out.println("\n==================================== TEST 22: QUEUE BACKPRESSURE ====================================");
+        testQueueBackpressure(operator);
+
+        // ------------------------------ Test 23: Wait-Time Estimates ------------------------------
+        System.out.println("\n==================================== TEST 23: WAIT-TIME ESTIMATES ====================================");
+        testWaitEstimates(operator);
+
+        // ------------------------------ Test 24: Copy-On-Write Queue Snapshots ------------------------------
+        System.out.println("\n==================================== TEST 24: QUEUE SNAPSHOTS ====================================");
+        testQueueSnapshots(operator);
+
+        // ------------------------------ Test 25: Duplicate-Enqueue Guard ------------------------------
+        System.out.println("\n==================================== TEST 25: DUPLICATE ENQUEUE ====================================");
+        testDuplicateEnqueue(operator);
+
+        // ------------------------------ Test 26: Tombstone Compaction ------------------------------
+        System.out.println("\n==================================== TEST 26: TOMBSTONE COMPACTION ====================================");
+        testTombstoneCompaction(operator);
+
+        // ------------------------------ Test 27: Cycle Results & Async Cycles ------------------------------
+        System.out.println("\n==================================== TEST 27: CYCLE RESULTS ====================================");
+        testCycleResults(operator);
+
+        // ------------------------------ Test 28: Discrete-Event Park Simulator ------------------------------
+        System.out.println("\n==================================== TEST 28: PARK SIMULATOR ====================================");
+        testParkSimulator(operator);
+
+        // ------------------------------ Test 29: Multi-Vehicle Loading ------------------------------
+        System.out.println("\n==================================== TEST 29: MULTI-VEHICLE LOADING ====================================");
+        testMultiVehicleLoading(operator);
+
+        // ------------------------------ Test 30: Party Seat Packing ------------------------------
+        System.out.println("\n==================================== TEST 30: PARTY LOADING ====================================");
+        testPartyLoading(operator);
+
+        // ------------------------------ Test 31: Event Bus Shutdown ------------------------------
+        System.out.println("\n==================================== TEST 31: EVENT BUS CLOSE ====================================");
+        testEventBusClose();
+
+        // ------------------------------ Test 32: Time-Range History Queries ------------------------------
+        System.out.println("\n==================================== TEST 32: HISTORY TIME RANGES ====================================");
+        testHistoryTimeRanges(operator);
+
         System.out.println("\n==================================== TEST SUITE COMPLETE ====================================");
+        System.out.println(failures == 0 ? "All feature checks passed" : failures + " feature check(s) FAILED");
+    }
+
+    /**
+     * Records one feature check.
+     * @param condition Expected outcome held
+     * @param description What was checked
+     */
+    private static void check(boolean condition, String description) {
+        System.out.println((condition ? "[PASS] " : "[FAIL] ") + description);
+        if (!condition) {
+            failures++;
+        }
+    }
+
+    /**
+     * The maintained sorted index and the one-shot sorted view must both match a stable
+     * RideComparator sort (ties in ride order), cost a few bytes per entry, and switch off.
+     */
+    private static void testSortedIndex(Employee operator) {
+        Ride indexed = new Ride("R018", "Sorted Coaster", operator, 2);
+        Ride oneShot = new Ride("R019", "Unsorted Coaster", operator, 2);
+        indexed.setVerbose(false);
+        oneShot.setVerbose(false);
+        SplittableRandom random = new SplittableRandom(18);
+        String[] names = {"Ada", "ben", "Cleo", "dan", "Eve"}; // Few names: plenty of full ties
+        indexed.addToHistory(new Visitor("S0", "Zed", 40, "SI-0", "Regular"));
+        indexed.sortHistory(); // Maintained from here on
+        List<Visitor> guests = new ArrayList<>();
+        for (int i = 1; i <= 50_000; i++) {
+            guests.add(new Visitor("S" + i, names[random.nextInt(names.length)], 18 + random.nextInt(5), "SI-" + i,
+                    random.nextInt(4) == 0 ? "VIP" : "Regular"));
+        }
+        guests.forEach(indexed::addToHistory);
+        oneShot.addToHistory(new Visitor("S0", "Zed", 40, "SI-0", "Regular"));
+        guests.forEach(oneShot::addToHistory);
+
+        List<Visitor> expected = indexed.getRideHistory();
+        expected.sort(new RideComparator()); // List.sort is stable: ties stay in ride order
+        check(ids(indexed.getSortedHistory()).equals(ids(expected)), "Maintained index matches a stable RideComparator sort");
+        check(ids(oneShot.getSortedHistory()).equals(ids(expected)) && !oneShot.getHistoryStore().isSorted(),
+                "One-shot sorted view matches and keeps no index");
+
+        HistoryStore store = indexed.getHistoryStore();
+        store.setSortOrder(null);
+        long columnsOnly = store.estimatedBytes();
+        store.setSortOrder(RideComparator.HISTORY_ORDER);
+        double perEntry = (double) (store.estimatedBytes() - columnsOnly) / store.size();
+        check(perEntry < 8, String.format("Sorted index costs %.1f bytes per entry (was ~78 with TreeSet<Integer>)", perEntry));
+
+        indexed.unsortHistory();
+        check(!store.isSorted() && ids(indexed.getSortedHistory()).equals(ids(expected)),
+                "unsortHistory drops the index; sorted reads still work per call");
+    }
+
+    /**
+     * Grows an IndexedVisitorQueue line well past the 16-slot Fenwick window while guests
+     * leave from the middle and board from the front, then compares every getQueuePosition
+     * answer with a plain scan of the line.
+     */
+    private static void testQueuePositions(Employee operator) {
+        Ride ride = new Ride("R020", "Indexed Coaster", operator, 5, new IndexedVisitorQueue());
+        ride.setVerbose(false);
+        List<Visitor> joined = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Visitor visitor = new Visitor("Q" + i, "Queue " + i, 25, "QP-" + i, "Regular");
+            joined.add(visitor);
+            ride.addToQueue(visitor);
+            if (i % 7 == 6) {
+                ride.removeFromQueue(joined.get(i - 3)); // Leaves from the middle of the line
+            }
+            if (i % 40 == 39) {
+                ride.runCycle();                         // Moves the head, so rebuilds slide the window
+            }
+        }
+        List<Visitor> line = toList(ride.snapshotQueue());
+        boolean matches = true;
+        for (Visitor visitor : joined) {
+            matches &= ride.getQueuePosition(visitor) == line.indexOf(visitor) + (line.contains(visitor) ? 1 : 0);
+        }
+        check(line.size() > 16 && matches, "getQueuePosition matches a scan of " + line.size() + " waiting after window rebuilds");
+    }
+
+    /**
+     * Queues VIP and Regular guests alternately behind a 3:1 PriorityLaneQueue and checks one
+     * 8-seat cycle boards six VIP guests, each lane in its own arrival order.
+     */
+    private static void testPriorityLanes(Employee operator) {
+        Ride ride = new Ride("R021", "Lane Coaster", operator, 8, new PriorityLaneQueue(3, 1));
+        ride.setVerbose(false);
+        for (int i = 0; i < 16; i++) {
+            ride.addToQueue(new Visitor("L" + i, "Lane " + i, 30, "LN-" + i, i % 2 == 0 ? "VIP" : "Regular"));
+        }
+        List<String> boarded = ids(ride.dispatchCycle().getRiders());
+        check(boarded.equals(List.of("LN-0", "LN-2", "LN-4", "LN-1", "LN-6", "LN-8", "LN-10", "LN-3")),
+                "PriorityLaneQueue boards 3 VIP guests per Regular guest " + boarded);
+    }
+
+    /**
+     * Queues a gate batch with a null entry and a repeated visitorId into a bounded line,
+     * checks only the valid guests that fit are queued in order, and that a quiet ride
+     * prints nothing.
+     */
+    private static void testBulkEnqueue(Employee operator) {
+        Ride ride = new Ride("R022", "Bulk Coaster", operator, 4);
+        ride.setVerbose(false);
+        ride.setDeduplicateQueue(true);
+        ride.setQueueCapacity(5);
+        List<Visitor> batch = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            batch.add(new Visitor("B" + i, "Bulk " + i, 30, "BK-" + i, "Regular"));
+        }
+        batch.add(2, null);
+        batch.add(4, new Visitor("B1", "Bulk 1 again", 30, "BK-1", "Regular"));
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(captured, true));
+        int added;
+        try {
+            added = ride.addAllToQueue(batch);
+        } finally {
+            System.setOut(console);
+        }
+        check(added == 5 && ids(toList(ride.snapshotQueue())).equals(List.of("BK-0", "BK-1", "BK-2", "BK-3", "BK-4")),
+                "addAllToQueue skips nulls and repeats and admits only what fits, in order");
+        check(captured.size() == 0, "addAllToQueue prints nothing with verbose off");
+    }
+
+    /**
+     * Fills a 3-guest line on a 2-seat ride dispatching every minute, then checks an extra
+     * arrival is turned away with the wait the line would have cost.
+     */
+    private static void testQueueBackpressure(Employee operator) {
+        VirtualClock clock = new VirtualClock(0);
+        Ride ride = new Ride("R023", "Bounded Coaster", operator, 2);
+        ride.setVerbose(false);
+        ride.setClock(clock);
+        ride.setQueueCapacity(3);
+        List<Visitor> guests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            guests.add(new Visitor("C" + i, "Capped " + i, 30, "CP-" + i, "Regular"));
+        }
+        guests.subList(0, 3).forEach(ride::addToQueue);
+        ride.runCycle();
+        guests.subList(3, 5).forEach(ride::addToQueue);
+        clock.setMillis(60_000);
+        ride.runCycle();
+        QueueAdmission admitted = ride.tryAddToQueue(guests.get(5));
+        ride.addToQueue(guests.get(6));
+        QueueAdmission full = ride.tryAddToQueue(guests.get(7));
+        check(admitted.isAccepted() && admitted.getPosition() == 2 && admitted.getEstimatedWaitMillis() == 60_000,
+                "tryAddToQueue admits with position and estimated wait (" + admitted + ")");
+        check(!full.isAccepted() && full.getReason().startsWith("Queue full") && full.getPosition() == 3
+                        && full.getEstimatedWaitMillis() == 120_000 && ride.snapshotQueue().size() == 3,
+                "A full line rejects arrivals with the wait it would have cost (" + full + ")");
+    }
+
+    /**
+     * Dispatches a 2-seat ride at 0 s, 60 s and 100 s of ride-clock time: the estimate is
+     * unknown until an interval is observed, then follows the smoothed interval (60 s, then
+     * 60 + 0.2 x (40 - 60) = 56 s) times the cycles ahead of each position.
+     */
+    private static void testWaitEstimates(Employee operator) {
+        VirtualClock clock = new VirtualClock(0);
+        Ride ride = new Ride("R024", "Timed Coaster", operator, 2);
+        ride.setVerbose(false);
+        ride.setClock(clock);
+        for (int i = 0; i < 9; i++) {
+            ride.addToQueue(new Visitor("T" + i, "Timed " + i, 30, "TM-" + i, "Regular"));
+        }
+        ride.runCycle();
+        boolean unknown = ride.getEstimatedWait() == WaitTimeEstimator.UNKNOWN_WAIT;
+        clock.setMillis(60_000);
+        ride.runCycle();
+        long afterTwo = ride.getEstimatedWait(3);
+        clock.setMillis(100_000);
+        ride.runCycle();
+        check(unknown && afterTwo == 120_000, "getEstimatedWait is unknown after one cycle, then cycles ahead x interval");
+        check(ride.getEstimatedWait() == 112_000 && ride.getEstimatedWait(1) == 56_000,
+                "getEstimatedWait follows the smoothed dispatch interval (" + ride.getEstimatedWait() + " ms for the next arrival)");
+    }
+
+    /**
+     * Snapshots a ChunkedVisitorQueue line of 600 (three 256-slot chunks), then boards past
+     * the first chunk boundary, removes guests from the second and third chunks and adds
+     * more: the snapshot must keep the old contents and order.
+     */
+    private static void testQueueSnapshots(Employee operator) {
+        Ride ride = new Ride("R025", "Signboard Coaster", operator, 300, new ChunkedVisitorQueue());
+        ride.setVerbose(false);
+        List<Visitor> joined = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            joined.add(new Visitor("W" + i, "Board " + i, 30, "SB-" + i, "Regular"));
+        }
+        ride.addAllToQueue(joined);
+        QueueSnapshot before = ride.snapshotQueue();
+        ride.runCycle();                           // Polls 300: crosses the first chunk boundary
+        ride.removeFromQueue(joined.get(400));
+        ride.removeFromQueue(joined.get(520));
+        Visitor late = new Visitor("W600", "Board 600", 30, "SB-600", "Regular");
+        ride.addToQueue(late);
+        QueueSnapshot after = ride.snapshotQueue();
+
+        List<Visitor> expectedAfter = new ArrayList<>(joined.subList(300, 600));
+        expectedAfter.remove(joined.get(520));
+        expectedAfter.remove(joined.get(400));
+        expectedAfter.add(late);
+        check(before.size() == 600 && ids(toList(before)).equals(ids(joined)),
+                "Snapshot keeps the old contents and order after polls and removals across chunks");
+        check(after.size() == 299 && ids(toList(after)).equals(ids(expectedAfter)), "A new snapshot shows the line after the changes");
+    }
+
+    /**
+     * Turns the guard on with guests already waiting, retries their joins (app retries send
+     * fresh Visitor objects), and checks the id is freed when a guest boards or leaves.
+     */
+    private static void testDuplicateEnqueue(Employee operator) {
+        Ride ride = new Ride("R026", "Retry Coaster", operator, 1);
+        ride.setVerbose(false);
+        ride.addToQueue(new Visitor("D0", "Dup 0", 30, "DP-0", "Regular"));
+        ride.addToQueue(new Visitor("D1", "Dup 1", 30, "DP-1", "Regular"));
+        ride.setDeduplicateQueue(true);            // Indexes the two guests already waiting
+        ride.addToQueue(new Visitor("D1", "Dup 1 retry", 30, "DP-1", "Regular"));
+        QueueAdmission retry = ride.tryAddToQueue(new Visitor("D0", "Dup 0 retry", 30, "DP-0", "Regular"));
+        check(!retry.isAccepted() && "Already queued".equals(retry.getReason()) && ride.snapshotQueue().size() == 2,
+                "setDeduplicateQueue rejects visitorIds already waiting, including those queued before it was enabled");
+
+        ride.runCycle();                           // DP-0 boards
+        ride.removeFromQueue(new Visitor("D1", "Dup 1", 30, "DP-1", "Regular"));
+        QueueAdmission rejoin = ride.tryAddToQueue(new Visitor("D0", "Dup 0 again", 30, "DP-0", "Regular"));
+        ride.addToQueue(new Visitor("D1", "Dup 1 again", 30, "DP-1", "Regular"));
+        check(rejoin.isAccepted() && ids(toList(ride.snapshotQueue())).equals(List.of("DP-0", "DP-1")),
+                "Boarding or leaving frees the visitorId for a new join");
+
+        ride.setDeduplicateQueue(false);
+        ride.addToQueue(new Visitor("D0", "Dup 0 twice", 30, "DP-0", "Regular"));
+        check(!ride.isDeduplicatingQueue() && ride.snapshotQueue().size() == 3, "Turning the guard off allows repeats again");
+    }
+
+    /**
+     * Abandons 600 of 1,000 guests on a TombstoneVisitorQueue ride (default threshold:
+     * compact once tombstones outnumber live entries, minimum 256): the 501st abandonment
+     * compacts, the counters follow, and the survivors keep their order through the cycle.
+     */
+    private static void testTombstoneCompaction(Employee operator) {
+        TombstoneVisitorQueue line = new TombstoneVisitorQueue();
+        Ride ride = new Ride("R027", "Outage Coaster", operator, 450, line);
+        ride.setVerbose(false);
+        List<Visitor> joined = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            joined.add(new Visitor("A" + i, "Outage " + i, 30, "OT-" + i, "Regular"));
+        }
+        ride.addAllToQueue(joined);
+        List<Visitor> expected = new ArrayList<>(joined);
+        for (int i = 101; i < 900; i += 2) {       // 400 abandon: still fewer tombstones than live entries
+            ride.removeFromQueue(joined.get(i));
+            expected.remove(joined.get(i));
+        }
+        check(line.getLiveCount() == 600 && line.getTombstoneCount() == 400 && line.getCompactionCount() == 0,
+                "Tombstones accumulate below the threshold (live 600, tombstones 400)");
+
+        for (int i = 200; i < 600; i += 2) {       // 200 more: the 101st tips tombstones past live entries
+            ride.removeFromQueue(joined.get(i));
+            expected.remove(joined.get(i));
+        }
+        check(line.getLiveCount() == 400 && line.getTombstoneCount() == 99 && line.getCompactionCount() == 1,
+                "Compaction runs once tombstones exceed live entries (live " + line.getLiveCount() + ", tombstones "
+                        + line.getTombstoneCount() + ", compactions " + line.getCompactionCount() + ")");
+
+        List<Visitor> boarded = ride.dispatchCycle().getRiders();
+        check(ids(boarded).equals(ids(expected)) && line.isEmpty() && line.getTombstoneCount() == 0,
+                "Survivors board in arrival order and polling drops the remaining tombstones");
+    }
+
+    /**
+     * Checks dispatchCycle's result for a failed and a successful cycle, then pipelines six
+     * async cycles of one ride on a 4-thread pool: they must run one at a time in order, and
+     * a failed cycle must not break the chain.
+     */
+    private static void testCycleResults(Employee operator) {
+        Ride ride = new Ride("R028", "Async Coaster", operator, 2);
+        ride.setVerbose(false);
+        CycleResult empty = ride.dispatchCycle();
+        for (int i = 0; i < 9; i++) {
+            ride.addToQueue(new Visitor("Y" + i, "Async " + i, 30, "AS-" + i, "Regular"));
+        }
+        CycleResult first = ride.dispatchCycle();
+        check(empty.getStatus() == CycleResult.Status.EMPTY_QUEUE && empty.getCycleNumber() == 1 && empty.getRiderCount() == 0
+                        && first.isSuccess() && first.getCycleNumber() == 1 && ids(first.getRiders()).equals(List.of("AS-0", "AS-1")),
+                "dispatchCycle reports failures and successes with cycle number and riders");
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<CycleResult>> pending = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                pending.add(ride.runCycleAsync(pool));
+            }
+            List<String> outcomes = new ArrayList<>();
+            for (CompletableFuture<CycleResult> future : pending) {
+                CycleResult result = future.join();
+                outcomes.add(result.isSuccess() ? result.getCycleNumber() + ":" + ids(result.getRiders()) : result.getStatus().name());
+            }
+            ride.addToQueue(new Visitor("Y9", "Async 9", 30, "AS-9", "Regular"));
+            CycleResult afterFailures = ride.runCycleAsync(pool).join();
+            check(outcomes.equals(List.of("2:[AS-2, AS-3]", "3:[AS-4, AS-5]", "4:[AS-6, AS-7]", "5:[AS-8]", "EMPTY_QUEUE", "EMPTY_QUEUE"))
+                            && afterFailures.getCycleNumber() == 6,
+                    "runCycleAsync runs one ride's cycles in order and keeps going after a failure " + outcomes);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Simulates a 2,000-visitor day twice with the same seed (identical reports) and checks
+     * the report against the rides it drove: riders match history, no cycle exceeds its
+     * seats, and a ride without an operator fails every cycle.
+     */
+    private static void testParkSimulator(Employee operator) {
+        SimulationReport[] reports = new SimulationReport[2];
+        Ride[] coasters = new Ride[2];
+        ParkSimulator last = null;
+        for (int run = 0; run < reports.length; run++) {
+            last = new ParkSimulator(20);
+            last.setVisitorCount(2_000);
+            coasters[run] = new Ride("R029", "Sim Coaster", operator, 24);
+            last.addRide(coasters[run], 90_000, 2);
+            last.addRide(new Ride("R030", "Sim Carousel", operator, 40), 120_000, 1);
+            last.addRide(new Ride("R031", "Closed Coaster", null, 24), 90_000, 1);
+            reports[run] = last.run();
+        }
+        check(reports[0].getRides().toString().equals(reports[1].getRides().toString()) // Per-ride lines: no wall-clock time
+                        && reports[0].getEventsProcessed() == reports[1].getEventsProcessed(),
+                "ParkSimulator repeats the same day for the same seed");
+
+        SimulationReport.RideReport coaster = reports[0].getRide("R029");
+        SimulationReport.RideReport closed = reports[0].getRide("R031");
+        long riders = 0;
+        for (SimulationReport.RideReport ride : reports[0].getRides()) {
+            riders += ride.getRiders();
+        }
+        check(riders == reports[0].getRidesTaken() && coaster.getRiders() == coasters[0].getHistoryCount()
+                        && coaster.getRiders() <= coaster.getCycles() * 24L && coaster.getRiders() > 0,
+                "Simulation report matches the rides' histories and seat limits (" + coaster.getRiders() + " coaster riders)");
+        check(closed.getRiders() == 0 && closed.getCycles() == 0 && closed.getFailedCycles() > 0,
+                "A ride without an operator boards nobody in the simulation");
+        try {
+            last.run();
+            check(false, "ParkSimulator refuses a second run");
+        } catch (IllegalStateException e) {
+            check(true, "ParkSimulator refuses a second run");
+        }
+    }
+
+    /**
+     * Runs a 2+3+2-seat train: a full cycle fills the cars front to back in boarding order,
+     * a short cycle leaves the rear cars empty, and clearing the capacities returns to one car.
+     */
+    private static void testMultiVehicleLoading(Employee operator) {
+        Ride train = new Ride("R032", "Train Coaster", operator, 4);
+        train.setVerbose(false);
+        train.setVehicleCapacities(2, 3, 2);
+        for (int i = 0; i < 10; i++) {
+            train.addToQueue(new Visitor("C" + i, "Car " + i, 30, "CR-" + i, "Regular"));
+        }
+        CycleResult full = train.dispatchCycle();
+        check(train.getMaxRidersPerCycle() == 7 && full.getRiderCount() == 7
+                        && Arrays.equals(full.getVehicleLoads(), new int[] {2, 3, 2})
+                        && ids(full.getVehicleRiders(1)).equals(List.of("CR-2", "CR-3", "CR-4")),
+                "setVehicleCapacities seats riders car by car in boarding order");
+        CycleResult partial = train.dispatchCycle();
+        check(Arrays.equals(partial.getVehicleLoads(), new int[] {2, 1, 0}) && partial.getVehicleRiders(2).isEmpty(),
+                "A short cycle fills the front cars first");
+
+        train.setVehicleCapacities();
+        train.addToQueue(new Visitor("C10", "Car 10", 30, "CR-10", "Regular"));
+        CycleResult single = train.dispatchCycle();
+        check(!train.isMultiVehicle() && single.getVehicleCount() == 1 && Arrays.equals(train.getVehicleCapacities(), new int[] {7}),
+                "Clearing the capacities returns to one vehicle with the same seats");
+        try {
+            train.setVehicleCapacities(2, 0);
+            check(false, "setVehicleCapacities rejects an empty car");
+        } catch (IllegalArgumentException e) {
+            check(train.getMaxRidersPerCycle() == 7, "setVehicleCapacities rejects an empty car and keeps the old layout");
+        }
+    }
+
+    /**
+     * Packs parties of 3, 2 and 2 plus single riders into two 4-seat cars (each party seated
+     * together, gaps backfilled by single riders), then checks queueCapacity covers the
+     * standby, party and single-rider lines together.
+     */
+    private static void testPartyLoading(Employee operator) {
+        Ride family = new Ride("R033", "Family Coaster", operator, 8);
+        family.setVerbose(false);
+        family.setVehicleCapacities(4, 4);
+        family.enablePartyLoading(4);
+        Party trio = new Party("PARTY-A", List.of(new Visitor("F1", "Parent", 40, "FM-1", "Regular"),
+                new Visitor("F2", "Child", 9, "FM-2", "Regular"), new Visitor("F3", "Child", 7, "FM-3", "Regular")));
+        Party pairB = new Party("PARTY-B", List.of(new Visitor("F4", "Friend", 20, "FM-4", "Regular"),
+                new Visitor("F5", "Friend", 21, "FM-5", "Regular")));
+        Party pairC = new Party("PARTY-C", List.of(new Visitor("F6", "Couple", 30, "FM-6", "VIP"),
+                new Visitor("F7", "Couple", 31, "FM-7", "VIP")));
+        family.addSingleRider(new Visitor("F8", "Solo", 30, "FM-8", "Regular"));
+        family.addSingleRider(new Visitor("F9", "Solo", 33, "FM-9", "Regular"));
+        family.addPartyToQueue(trio);
+        family.addPartyToQueue(pairB);
+        family.addPartyToQueue(pairC);
+        CycleResult packed = family.dispatchCycle();
+        check(Arrays.equals(packed.getVehicleLoads(), new int[] {4, 4})
+                        && ids(packed.getVehicleRiders(0)).equals(List.of("FM-1", "FM-2", "FM-3", "FM-8"))
+                        && ids(packed.getVehicleRiders(1)).equals(List.of("FM-4", "FM-5", "FM-6", "FM-7"))
+                        && family.getPartyQueue().getWaitingCount() == 1,
+                "Parties sit together and a single rider fills the gap " + Arrays.toString(packed.getVehicleLoads()));
+
+        Ride bounded = new Ride("R034", "Bounded Family Coaster", operator, 8);
+        bounded.setVerbose(false);
+        bounded.setVehicleCapacities(4, 4);
+        bounded.enablePartyLoading(4);
+        bounded.setQueueCapacity(5);
+        for (int i = 0; i < 3; i++) {
+            bounded.addToQueue(new Visitor("N" + i, "Standby " + i, 30, "NB-" + i, "Regular"));
+        }
+        bounded.addPartyToQueue(trio);             // 3 standby + 3 > 5: rejected
+        bounded.addSingleRider(new Visitor("F8", "Solo", 30, "FM-8", "Regular"));
+        bounded.addSingleRider(new Visitor("F9", "Solo", 33, "FM-9", "Regular"));
+        bounded.addToQueue(new Visitor("N3", "Standby 3", 30, "NB-3", "Regular"));
+        QueueAdmission full = bounded.tryAddToQueue(new Visitor("N4", "Standby 4", 30, "NB-4", "Regular"));
+        check(bounded.getPartyQueue().getWaitingCount() == 2 && bounded.snapshotQueue().size() == 3 && !full.isAccepted(),
+                "queueCapacity counts the standby, party and single-rider lines together");
+    }
+
+    /**
+     * Four gate threads publish while the bus closes: every publish must end up either
+     * delivered or counted as dropped, with nothing left behind in the ring.
+     */
+    private static void testEventBusClose() {
+        final int publishers = 4;
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger stop = new AtomicInteger();
+        RideEventBus bus = new RideEventBus(1024);
+        bus.subscribe(event -> { });
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            Visitor gate = new Visitor("E" + p, "Gate " + p, 30, "EB-" + p, "Regular");
+            Thread thread = new Thread(() -> {
+                while (stop.get() == 0) {
+                    bus.publish(new RideEvent(RideEvent.Type.ENQUEUED, "R035", gate, null, 0));
+                    attempts.incrementAndGet();
+                    Thread.yield();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            Thread.sleep(20);
+            bus.close();
+            Thread.sleep(5);                       // Publishers keep going after close
+            stop.set(1);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        check(bus.getDeliveredCount() + bus.getDroppedCount() == attempts.get() && bus.getPendingCount() == 0
+                        && bus.getDroppedCount() > 0,
+                "Publishes racing close() are delivered or counted as dropped (" + bus.getDeliveredCount() + " delivered, "
+                        + bus.getDroppedCount() + " dropped of " + attempts.get() + ")");
+    }
+
+    /**
+     * Dispatches 1,700 three-rider cycles a minute apart (history spans two 4,096-entry
+     * chunks) and compares time-range queries with a scan; then a clock step backwards makes
+     * the column unordered and the queries must still agree.
+     */
+    private static void testHistoryTimeRanges(Employee operator) {
+        VirtualClock clock = new VirtualClock(0);
+        Ride ride = new Ride("R036", "Audit Coaster", operator, 3);
+        ride.setVerbose(false);
+        ride.setClock(clock);
+        List<String> riders = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        for (int cycle = 0; cycle < 1_700; cycle++) {
+            clock.setMillis(cycle * 60_000L);
+            for (int seat = 0; seat < 3; seat++) {
+                int n = cycle * 3 + seat;
+                ride.addToQueue(new Visitor("H" + n, "Audit " + n, 30, "HT-" + n, "Regular"));
+                riders.add("HT-" + n);
+                times.add(cycle * 60_000L);
+            }
+            ride.runCycle();
+        }
+        long[][] windows = {{0, 60_000}, {59_999, 60_001}, {4_000 * 20_000L, 4_200 * 20_000L}, {0, Long.MAX_VALUE}, {-5, 0}, {90_000, 30_000}};
+        check(rangesMatch(ride, riders, times, windows), "getHistoryBetween / getHistoryCountBetween match a scan on time-ordered history");
+
+        ride.setClock(Clock.fixed(Instant.ofEpochMilli(30_000), ZoneOffset.UTC)); // Clock stepped back: no longer time-ordered
+        ride.addToHistory(new Visitor("H-late", "Late Audit", 30, "HT-late", "Regular"));
+        riders.add("HT-late");
+        times.add(30_000L);
+        check(rangesMatch(ride, riders, times, windows), "Time-range queries still match after the clock steps backwards");
+    }
+
+    /**
+     * Compares getHistoryBetween and getHistoryCountBetween with a scan of the expected entries.
+     */
+    private static boolean rangesMatch(Ride ride, List<String> riders, List<Long> times, long[][] windows) {
+        for (long[] window : windows) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < riders.size(); i++) {
+                if (times.get(i) >= window[0] && times.get(i) < window[1]) {
+                    expected.add(riders.get(i));
+                }
+            }
+            if (!ids(ride.getHistoryBetween(window[0], window[1])).equals(expected)
+                    || ride.getHistoryCountBetween(window[0], window[1]) != expected.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lists visitor IDs in order (Visitor.equals ignores order-relevant fields).
+     */
+    private static List<String> ids(List<Visitor> visitors) {
+        List<String> ids = new ArrayList<>(visitors.size());
+        visitors.forEach(visitor -> ids.add(visitor.getVisitorId()));
+        return ids;
+    }
+
+    /**
+     * An unlimited Bloom budget (Long.MAX_VALUE bytes) must size the filter from the target
+     * rate instead of overflowing to the 64-bit minimum, and hasRidden must stay silent
+     * when verbose is off.
+     */
+    private static void testBloomBudgetAndQuietLookups(Employee operator) {
+        BloomFilter unlimited = new BloomFilter(100_000, 0.01, Long.MAX_VALUE);
+        BloomFilter budgeted = new BloomFilter(100_000, 0.01, 1L << 20);
+        check(unlimited.getBitCount() == budgeted.getBitCount() && unlimited.getBitCount() > 900_000,
+                "Long.MAX_VALUE budget sizes the filter by its rate (" + unlimited.getBitCount() + " bits)");
+
+        Ride ride = new Ride("R017", "Quiet Coaster", operator, 2);
+        ride.setVerbose(false);
+        Visitor guest = new Visitor("Q1", "Quiet Guest", 30, "QL-1", "Regular");
+        ride.addToHistory(guest);
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(captured, true));
+        boolean ridden;
+        try {
+            ridden = ride.hasRidden(guest);
+        } finally {
+            System.setOut(console);
+        }
+        check(ridden && captured.size() == 0, "hasRidden prints nothing with verbose off");
+    }
+
+    /**
+     * A reader thread calls contains() while the writer appends (and the ridden-ordinal set
+     * grows many times): every visitor appended before the read must be found.
+     */
+    private static void testConcurrentHasRidden() {
+        final int riders = 200_000;
+        Visitor[] guests = new Visitor[riders];
+        for (int i = 0; i < riders; i++) {
+            guests[i] = new Visitor("C" + i, "Concurrent " + i, 30, "CH-" + i, "Regular");
+        }
+        HistoryStore history = new HistoryStore();
+        AtomicInteger appended = new AtomicInteger();   // Entries published to the reader
+        AtomicInteger wrong = new AtomicInteger();
+        AtomicInteger lookups = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(16);
+            try {
+                while (appended.get() < riders) {
+                    int visible = appended.get();
+                    if (visible > 0 && !history.contains(guests[random.nextInt(visible)])) {
+                        wrong.incrementAndGet();
+                    }
+                    lookups.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                System.err.println("[ERROR] hasRidden reader failed: " + e);
+                wrong.incrementAndGet();
+            }
+        }, "has-ridden-reader");
+        reader.start();
+        for (int i = 0; i < riders; i++) {
+            history.append(guests[i], i, 0);
+            appended.set(i + 1);
+            if ((i & 1023) == 0) {
+                Thread.yield(); // Single-CPU hosts: let the reader interleave with growth
+            }
+        }
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        check(lookups.get() > 0 && wrong.get() == 0,
+                "contains() during " + riders + " appends: " + lookups.get() + " lookups, " + wrong.get() + " wrong");
+        check(history.getDistinctVisitorCount() == riders, "Distinct visitor count after concurrent reads");
+    }
+
+    /**
+     * Each ride owns its visitor registry, history hands out copies (stored records cannot be
+     * modified through them or through the original object), and clear() releases visitors.
+     */
+    private static void testVisitorRegistry(Employee operator) {
+        Ride first = new Ride("R015", "Registry Coaster", operator, 2);
+        Ride second = new Ride("R016", "Registry Wheel", operator, 2);
+        first.setVerbose(false);
+        second.setVerbose(false);
+        Visitor guest = new Visitor("G1", "Original Name", 30, "VR-1", "Regular");
+        first.addToHistory(guest);
+        second.addToHistory(guest);
+        check(first.getHistoryStore().getRegistry() != second.getHistoryStore().getRegistry(),
+                "Rides register visitors in their own registries (no shared lock)");
+
+        guest.setName("Renamed Outside");
+        first.getRideHistory().getFirst().setName("Renamed Copy");
+        check(first.getRideHistory().getFirst().getName().equals("Original Name"), "Stored history cannot be modified by callers");
+        check(first.getRideHistory().getFirst() != first.getRideHistory().getFirst(), "Every read returns a fresh copy");
+
+        HistoryStore store = new HistoryStore();
+        for (int i = 0; i < 100; i++) {
+            store.append(new Visitor("N" + i, "No Id " + i, 20, null, "Regular"), i, 0); // Null ids: one ordinal each
+        }
+        int registered = store.getRegistry().size();
+        store.clear();
+        check(registered == 100 && store.getRegistry().size() == 0, "Clearing an owned history releases its visitors");
+    }
+
+    /**
+     * Bulk enqueue and bulk history import must publish one batch event each, carrying every
+     * visitor in order, instead of one event per visitor.
+     */
+    private static void testBatchEvents(Employee operator) {
+        Ride ride = new Ride("R014", "Event Coaster", operator, 5);
+        ride.setVerbose(false);
+        List<RideEvent> events = new ArrayList<>(); // Bus thread writes, read after close()
+        List<Visitor> guests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            guests.add(new Visitor("B" + i, "Batch " + i, 30, "BE-" + i, "Regular"));
+        }
+        try (RideEventBus bus = new RideEventBus(64)) {
+            bus.subscribe(events::add);
+            ride.setEventBus(bus);
+            ride.addAllToQueue(guests);
+            ride.addToQueue(new Visitor("S1", "Solo", 30, "BE-S1", "Regular"));
+            ride.addAllToHistory(guests.subList(0, 3));
+        }
+        List<RideEvent.Type> types = new ArrayList<>();
+        events.forEach(event -> types.add(event.getType()));
+        check(types.equals(List.of(RideEvent.Type.ENQUEUED_BATCH, RideEvent.Type.ENQUEUED, RideEvent.Type.HISTORY_ADDED_BATCH)),
+                "One event per bulk call: " + types);
+        check(events.size() == 3 && events.get(0).getVisitors().equals(guests)
+                        && events.get(2).getVisitors().equals(guests.subList(0, 3)),
+                "Batch events carry every visitor in order");
+    }
+
+    /**
+     * Sweeps the VIP ratio on an overloaded one-ride park: with priority lanes, a mostly-VIP
+     * crowd starves the Regular lane and stretches the p90 wait, so the axis must matter.
+     */
+    private static void testSweepVipAxis() {
+        MonteCarloSweep sweep = new MonteCarloSweep(2004);
+        sweep.addRide("R013", "Sweep Coaster", 10, 60_000, 1.0);
+        sweep.setVisitorCount(3_000);
+        sweep.setRunsPerConfiguration(4);
+        sweep.setGrid(null, new int[]{10}, new double[]{1.0}, new double[]{0.0, 0.9});
+        List<MonteCarloSweep.Summary> summaries = sweep.run();
+        summaries.forEach(summary -> System.out.println("[SWEEP] " + summary));
+        double noVip = summaries.get(0).getP90WaitMinutes().getMean();
+        double mostlyVip = summaries.get(1).getP90WaitMinutes().getMean();
+        check(noVip != mostlyVip, String.format("VIP ratio changes the p90 wait (%.1f vs %.1f min)", noVip, mostlyVip));
+    }
+
+    /**
+     * Schedules a ride whose first cycle overruns three and a half slots: the passed slots must
+     * be counted as missed and skipped, not run back-to-back once the slow cycle returns.
+     */
+    private static void testDispatcherSkipsPastSlots(Employee operator) {
+        final long intervalMillis = 40;
+        List<long[]> cycles = new ArrayList<>(); // {start, end} per cycle (dispatcher thread only)
+        Ride ride = new Ride("R012", "Slow Dispatch", operator, 2) {
+            @Override
+            public void runCycle() {
+                long start = System.nanoTime();
+                if (cycles.isEmpty()) {
+                    try {
+                        Thread.sleep(intervalMillis * 7 / 2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.runCycle();
+                synchronized (cycles) {
+                    cycles.add(new long[]{start, System.nanoTime()});
+                }
+            }
+        };
+        ride.setVerbose(false);
+        try (RideDispatcher dispatcher = new RideDispatcher(1)) {
+            DispatchStats stats = dispatcher.schedule(ride, intervalMillis);
+            Thread.sleep(intervalMillis * 19 / 2); // Between slots, so no cycle is mid-flight at cancel
+            dispatcher.cancel(ride);
+            System.out.println("[DISPATCH] " + stats);
+            synchronized (cycles) {
+                check(stats.getMissedCount() >= 3, "Slots passed during the slow cycle counted as missed (" + stats.getMissedCount() + ")");
+                check(cycles.size() >= 2 && cycles.get(1)[0] - cycles.get(0)[1] >= intervalMillis / 4 * 1_000_000,
+                        "Next cycle waits for its own slot instead of running right after the slow one");
+                check(stats.getDispatchCount() == cycles.size(), "Skipped slots are not counted as dispatches");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // cancel() racing schedule() must never see a registration whose first run is not yet set
+        Ride quick = new Ride("R013", "Racing Dispatch", operator, 2);
+        quick.setVerbose(false);
+        try (RideDispatcher racing = new RideDispatcher(1)) {
+            AtomicInteger cancels = new AtomicInteger();
+            AtomicReference<RuntimeException> failure = new AtomicReference<>();
+            Thread canceller = new Thread(() -> {
+                try {
+                    while (cancels.get() < 2_000) {
+                        if (racing.cancel(quick)) {
+                            cancels.incrementAndGet();
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            });
+            canceller.start();
+            while (failure.get() == null && cancels.get() < 2_000) {
+                try {
+                    racing.schedule(quick, 60_000);
+                } catch (IllegalArgumentException alreadyScheduled) {
+                    Thread.yield();
+                }
+            }
+            canceller.join();
+            check(failure.get() == null && cancels.get() == 2_000,
+                    "cancel() racing schedule() never fails (" + (failure.get() == null ? cancels.get() + " cancels" : failure.get()) + ")");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Crashes a durable ride with a torn record at the end of its log, replays it (REMOVE and
+     * CYCLE-by-key records), checkpoints, replays again, and checks a non-journal file is
+     * rejected untouched.
+     */
+    private static void testJournalRecovery(Employee operator) {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("ride-journal");
+            Path log = dir.resolve("R010.journal");
+            List<Visitor> guests = new ArrayList<>();
+            for (int i = 1; i <= 7; i++) {
+                guests.add(new Visitor("J00" + i, "Durable " + i, 20 + i, "VIS-J0" + i, i % 2 == 0 ? "VIP" : "Regular"));
+            }
+            Ride ride = new Ride("R010", "Durable Coaster", operator, 3);
+            ride.setVerbose(false);
+            RideJournal journal = RideJournal.openAndRecover(log, ride, 1, 0);
+            guests.subList(0, 6).forEach(ride::addToQueue);
+            ride.removeFromQueue(guests.get(1));   // REMOVE record
+            ride.runCycle();                       // CYCLE record: guests 1, 3, 4 by key
+            ride.addToQueue(guests.get(6));
+            journal.close();                       // Everything up to here is fsynced...
+            long validBytes = Files.size(log);
+            Files.write(log, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 9}, StandardOpenOption.APPEND); // ...then a torn record
+
+            Ride recovered = new Ride("R010", "Durable Coaster", operator, 3);
+            recovered.setVerbose(false);
+            RideJournal reopened = RideJournal.openAndRecover(log, recovered, 1, 0);
+            check(toList(recovered.snapshotQueue()).equals(List.of(guests.get(4), guests.get(5), guests.get(6)))
+                            && recovered.getRideHistory().equals(List.of(guests.get(0), guests.get(2), guests.get(3)))
+                            && recovered.getCycleCount() == 1 && recovered.getHistoryStore().cycleAt(0) == 1
+                            && Files.size(log) == validBytes,
+                    "Journal replay: REMOVE and CYCLE-by-key applied, torn tail truncated");
+
+            reopened.checkpoint();
+            recovered.runCycle();                  // Boards guests 5, 6, 7 after the snapshot
+            reopened.setCheckpointRecords(5);
+            for (int i = 0; i < 20; i++) {
+                recovered.addToQueue(new Visitor("K" + i, "Late " + i, 30, "VIS-K" + i, "Regular"));
+            }
+            long checkpoints = reopened.getCheckpointCount();
+            reopened.close();
+            Ride again = new Ride("R010", "Durable Coaster", operator, 3);
+            again.setVerbose(false);
+            RideJournal third = RideJournal.openAndRecover(log, again, 1, 0);
+            check(checkpoints > 1 && again.getRideHistory().size() == 6 && again.snapshotQueue().size() == 20
+                            && again.getCycleCount() == 2 && third.getRecordsSinceCheckpoint() < 20,
+                    "Journal checkpoints: " + checkpoints + " snapshots, replayed tail of " + third.getRecordsSinceCheckpoint() + " records");
+            third.setCheckpointRecords(5);
+            List<Visitor> group = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                group.add(new Visitor("G" + i, "Group " + i, 12, "VIS-G" + i, "Regular"));
+            }
+            again.addAllToQueue(group);            // Crosses the 5-record threshold mid-batch
+            List<Visitor> expectedLine = toList(again.snapshotQueue());
+            long batchCheckpoints = third.getCheckpointCount();
+            third.close();
+            Ride fourth = new Ride("R010", "Durable Coaster", operator, 3);
+            fourth.setVerbose(false);
+            RideJournal.openAndRecover(log, fourth, 1, 0).close();
+            check(batchCheckpoints > 0 && toList(fourth.snapshotQueue()).equals(expectedLine) && expectedLine.size() == 27,
+                    "Journal batch across a checkpoint replays each visitor once (" + fourth.snapshotQueue().size() + " queued)");
+
+            Path csv = dir.resolve("history.csv");
+            Files.write(csv, "V001,Alice,25,VIS-001,VIP\nV002,Bob,19,VIS-002,Regular\n".getBytes());
+            long csvBytes = Files.size(csv);
+            try {
+                RideJournal.openAndRecover(csv, new Ride("R011", "Wrong File Coaster", operator, 3));
+                check(false, "Journal refuses a non-journal file");
+            } catch (IOException e) {
+                check(Files.size(csv) == csvBytes, "Journal refuses a non-journal file and leaves it untouched");
+            }
+        } catch (IOException e) {
+            check(false, "Journal recovery I/O: " + e.getMessage());
+        } finally {
+            deleteQuietly(dir);
+        }
+    }
+
+    private static List<Visitor> toList(Iterable<Visitor> visitors) {
+        List<Visitor> list = new ArrayList<>();
+        visitors.forEach(list::add);
+        return list;
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            System.err.println("[WARNING] Could not clean up " + dir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reserves 3 return times per second for 5 minutes against 60 s windows of 10 guests:
+     * windows must not overlap and none may hold more than 10 reservations.
+     */
+    private static void testVirtualQueueWindows() {
+        final long windowMillis = 60_000;
+        final int guestsPerWindow = 10;
+        VirtualQueue virtualQueue = new VirtualQueue(windowMillis, guestsPerWindow);
+        List<Reservation> reservations = new ArrayList<>();
+        long start = 1_000_000;
+        for (int second = 0; second < 300; second++) {
+            for (int i = 0; i < 3; i++) {
+                Visitor visitor = new Visitor("W" + second + "-" + i, "Returner", 30, "VQ-" + second + "-" + i, "Regular");
+                reservations.add(virtualQueue.reserve(visitor, start + second * 1000L));
+            }
+        }
+        int worstFill = 0;
+        boolean disjoint = true;
+        long windowStart = Long.MIN_VALUE;
+        int fill = 0;
+        for (Reservation reservation : reservations) { // Issued in non-decreasing window order
+            if (reservation.getReturnAtMillis() != windowStart) {
+                disjoint &= reservation.getReturnAtMillis() >= windowStart + windowMillis || windowStart == Long.MIN_VALUE;
+                windowStart = reservation.getReturnAtMillis();
+                fill = 0;
+            }
+            worstFill = Math.max(worstFill, ++fill);
+        }
+        check(worstFill <= guestsPerWindow && disjoint,
+                "Virtual queue: at most " + worstFill + " of " + guestsPerWindow + " guests per window, windows disjoint");
+    }
+
+    /**
+     * IndexedVisitorQueue and TombstoneVisitorQueue follow Visitor.equals: visitors without
+     * a visitorId are distinct, a repeated visitorId is rejected.
+     */
+    private static void testIndexedQueues() {
+        Visitor anonymousA = new Visitor();
+        Visitor anonymousB = new Visitor();
+        Visitor tagged = new Visitor("V101", "Hana", 33, "VIS-101", "Regular");
+        Visitor taggedCopy = new Visitor("V101", "Hana", 33, "VIS-101", "Regular");
+
+        IndexedVisitorQueue indexed = new IndexedVisitorQueue();
+        check(indexed.offer(anonymousA) && indexed.offer(anonymousB) && indexed.offer(tagged) && !indexed.offer(taggedCopy),
+                "IndexedVisitorQueue accepts two id-less visitors and rejects a repeated visitorId");
+        check(indexed.remove(anonymousB) && indexed.positionOf(anonymousA) == 1 && indexed.positionOf(tagged) == 2
+                        && indexed.positionOf(anonymousB) == -1,
+                "IndexedVisitorQueue removes the right id-less visitor and keeps positions");
+
+        TombstoneVisitorQueue tombstones = new TombstoneVisitorQueue();
+        check(tombstones.offer(anonymousA) && tombstones.offer(anonymousB) && !tombstones.offer(anonymousA),
+                "TombstoneVisitorQueue tells id-less visitors apart");
+        check(tombstones.remove(anonymousA) && tombstones.poll() == anonymousB && tombstones.isEmpty(),
+                "TombstoneVisitorQueue abandons only the removed id-less visitor");
+    }
+
+    /**
+     * Stresses MpscRingBuffer with offer() and offerAll() producers against one drainTo()
+     * consumer that also removes elements: nothing lost or duplicated, per-producer FIFO kept.
+     */
+    private static void testConcurrentRing() {
+        final int producers = 4;            // Even: offer(), odd: offerAll() batches
+        final int perProducer = 50_000;
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(1024); // Small ring: producers hit "full" often
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads.add(new Thread(() -> {
+                int next = 0;
+                Integer[] batch = new Integer[64];
+                while (next < perProducer) {
+                    if (producer % 2 == 0) {
+                        if (ring.offer(producer * perProducer + next)) {
+                            next++;
+                        }
+                    } else {
+                        int count = Math.min(batch.length, perProducer - next);
+                        for (int i = 0; i < count; i++) {
+                            batch[i] = producer * perProducer + next + i;
+                        }
+                        next += ring.offerAll(batch, 0, count);
+                    }
+                    Thread.yield();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        boolean ordered = true;
+        int received = 0;
+        int removed = 0;
+        Integer[] drained = new Integer[32];
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (received + removed < producers * perProducer && System.currentTimeMillis() < deadline) {
+            Integer head = ring.peek();
+            if (head != null && head % 97 == 0 && ring.remove(head)) { // Consumer-side removal
+                removed++;
+                lastSeen[head / perProducer] = head % perProducer;
+                continue;
+            }
+            int n = ring.drainTo(drained, 0, drained.length);
+            if (n == 0) {
+                Thread.yield(); // Let producers run (single-core hosts)
+            }
+            for (int i = 0; i < n; i++) {
+                int producer = drained[i] / perProducer;
+                int sequence = drained[i] % perProducer;
+                ordered &= sequence > lastSeen[producer];
+                lastSeen[producer] = sequence;
+            }
+            received += n;
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        check(received + removed == producers * perProducer && ring.isEmpty(),
+                "Ring delivered " + received + " + removed " + removed + " of " + producers * perProducer + " elements");
+        check(ordered, "Ring kept per-producer FIFO order across offer/offerAll/drainTo");
+    }
+
+    /**
+     * Gate threads enqueue onto an MpscRingBuffer line (one guest in 100 leaves again right
+     * away) while cycles drain it: every visitor boards or leaves exactly once.
+     */
+    private static void testConcurrentRemoval(Employee operator) {
+        final int perGate = 5_000;
+        Ride ride = new Ride("R008", "Concurrent Coaster", operator, 16, new MpscRingBuffer<>(1 << 14));
+        ride.setVerbose(false);
+        AtomicInteger left = new AtomicInteger();
+        Set<Visitor> leftVisitors = ConcurrentHashMap.newKeySet();
+        List<Thread> gates = new ArrayList<>();
+        for (int g = 0; g < 2; g++) {
+            final int gate = g;
+            gates.add(new Thread(() -> {
+                for (int i = 0; i < perGate; i++) {
+                    Visitor visitor = new Visitor("G" + gate + "-" + i, "Guest " + gate + "-" + i, 20, "CG" + gate + "-" + i, "Regular");
+                    ride.addToQueue(visitor);
+                    if (i % 100 == 99 && ride.removeFromQueue(visitor)) { // Races the cycle drain on purpose
+                        left.incrementAndGet();
+                        leftVisitors.add(visitor);
+                    }
+                }
+            }));
+        }
+        gates.forEach(Thread::start);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while ((gates.get(0).isAlive() || gates.get(1).isAlive()) && System.currentTimeMillis() < deadline) {
+            if (!ride.dispatchCycle().isSuccess()) {
+                Thread.yield();
+            }
+        }
+        while (ride.dispatchCycle().isSuccess()) {
+            // Board whoever is still waiting once the gates have closed
+        }
+        Set<Visitor> boarded = new HashSet<>();
+        boolean unique = true;
+        for (Visitor visitor : ride.getRideHistory()) {
+            unique &= boarded.add(visitor) && !leftVisitors.contains(visitor);
+        }
+        check(unique && boarded.size() + left.get() == 2 * perGate,
+                "Concurrent removals: " + boarded.size() + " boarded + " + left.get() + " left of " + 2 * perGate);
     }
 }
\ No newline at end of file
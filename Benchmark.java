@@ -0,0 +1,67 @@
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Minimal timing harness shared by the *Benchmark main classes.
+ * <p>Design Choices:
+ * - Warm-up rounds run the measured code until the JIT has compiled it, then timed rounds
+ *   report nanoseconds per operation
+ * - The median round is reported, so one GC pause or scheduler hiccup does not skew it
+ * - Every operation returns a value that is folded into a volatile sink, so the JIT cannot
+ *   discard the measured work as dead code
+ * - An untimed setup step runs before each round (refill a line, rebuild a store)
+ * </p>
+ * <p>Numbers are indicative (no fork/isolation like JMH); run with a fixed heap, e.g.
+ * {@code java -Xms2g -Xmx2g DispatchBenchmark}, and compare rows from the same run.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public final class Benchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 7;
+
+    private static volatile long sink; // Consumes results so measured work stays live
+
+    private Benchmark() {
+    }
+
+    /**
+     * Times an operation and returns the median cost per call.
+     *
+     * @param setup Untimed preparation run before every round (may be null)
+     * @param operation Measured operation; receives the call index within the round
+     * @param operationsPerRound Calls per round (positive)
+     * @return double median nanoseconds per operation
+     */
+    public static double measure(Runnable setup, IntToLongFunction operation, int operationsPerRound) {
+        double[] rounds = new double[MEASURED_ROUNDS];
+        long result = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            if (setup != null) {
+                setup.run();
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < operationsPerRound; i++) {
+                result += operation.applyAsLong(i);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                rounds[round - WARMUP_ROUNDS] = (double) elapsed / operationsPerRound;
+            }
+        }
+        sink += result;
+        Arrays.sort(rounds);
+        return rounds[MEASURED_ROUNDS / 2];
+    }
+
+    /**
+     * Prints one result row.
+     * @param label Scenario name
+     * @param size Problem size (line length, history entries, riders per cycle)
+     * @param nanosPerOperation Median cost per operation
+     */
+    public static void report(String label, long size, double nanosPerOperation) {
+        System.out.printf("  %-36s %,12d %,14.1f ns/op%n", label, size, nanosPerOperation);
+    }
+}
@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size Bloom filter over 64-bit hashes (no false negatives, tunable false positives).
+ * <p>Design Choices:
+ * - Sized from the expected insertions and target false-positive rate
+ *   (m = -n ln p / ln^2 2 bits, k = m/n ln 2 probes), then capped at a memory budget;
+ *   a capped filter simply runs at a higher false-positive rate
+ * - k probe positions come from double hashing (h1 + i * h2) of one 64-bit hash, so a
+ *   lookup costs one hash and k bit tests in a long[]
+ * </p>
+ * <p>Not thread-safe.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class BloomFilter {
+    private final long[] words;     // Bit array
+    private final long bitCount;    // words.length x 64
+    private final int hashCount;    // Probes per key (k)
+    private long insertions;        // put() calls
+
+    /**
+     * Creates a filter for an expected number of keys.
+     *
+     * @param expectedInsertions Keys the filter is sized for (positive)
+     * @param falsePositiveRate Target false-positive rate, in (0, 1)
+     * @param maxBytes Memory budget for the bit array (positive)
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        if (expectedInsertions <= 0 || !(falsePositiveRate > 0 && falsePositiveRate < 1) || maxBytes <= 0) {
+            throw new IllegalArgumentException("Bloom filter needs positive insertions/budget and a rate in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long idealBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        long budgetBits = maxBytes > Long.MAX_VALUE / 8 ? Long.MAX_VALUE : maxBytes * 8; // No overflow for huge budgets
+        long bits = Math.max(64, Math.min(idealBits, budgetBits));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new long[wordCount];
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / expectedInsertions * ln2)));
+    }
+
+    /**
+     * Adds a key.
+     * @param hash 64-bit hash of the key
+     */
+    public void put(long hash) {
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1; // Odd step: probes never collapse onto one position
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        insertions++;
+    }
+
+    /**
+     * Tests a key.
+     * @param hash 64-bit hash of the key
+     * @return false if the key was definitely never added; true if it may have been
+     */
+    public boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears every bit (the sizing is kept).
+     */
+    public void clear() {
+        Arrays.fill(words, 0);
+        insertions = 0;
+    }
+
+    // ------------------------------ Metrics ------------------------------
+    public long getBitCount() { return bitCount; }
+    public long getByteSize() { return bitCount / 8; }
+    public int getHashCount() { return hashCount; }
+    public long getInsertions() { return insertions; }
+
+    /**
+     * Gets the theoretical false-positive rate at the current fill, (1 - e^(-kn/m))^k.
+     * @return double expected false-positive rate
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions / bitCount), hashCount);
+    }
+
+    /**
+     * Spreads a 32-bit hashCode over 64 bits (SplitMix64 finalizer) for use as a filter key.
+     * @param hashCode Object hash code
+     * @return long well-mixed 64-bit hash
+     */
+    public static long mix(int hashCode) {
+        long z = hashCode * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
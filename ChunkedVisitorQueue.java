@@ -0,0 +1,176 @@
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * FIFO visitor queue stored in fixed-size chunks with copy-on-write sharing.
+ * <p>Design Choices:
+ * - offer() only writes past the end of the tail chunk; poll() only moves a chunk's start
+ *   index forward; neither ever overwrites a slot a snapshot could still read
+ * - remove(Object) replaces the affected chunk with a trimmed copy (copy-on-write), so
+ *   existing snapshots keep the old chunk untouched
+ * - snapshot() copies chunk references and ranges only: O(chunks), not O(visitors)
+ * </p>
+ * <p>Thread Safety: mutations and snapshot() synchronize on the queue, but only briefly;
+ * printQueue, signboards and exports then read the QueueSnapshot without any lock.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class ChunkedVisitorQueue extends AbstractQueue<Visitor> {
+    private static final int CHUNK_SIZE = 256; // Visitors per chunk
+
+    /**
+     * One chunk: slots [start, end) of items are live.
+     */
+    private static final class Chunk {
+        final Visitor[] items;
+        int start;
+        int end;
+
+        Chunk(Visitor[] items, int start, int end) {
+            this.items = items;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final List<Chunk> chunks = new ArrayList<>(); // Head chunk first
+    private int size;                                     // Visitors across all chunks
+
+    @Override
+    public synchronized boolean offer(Visitor visitor) {
+        if (visitor == null) {
+            throw new NullPointerException("ChunkedVisitorQueue does not accept null visitors");
+        }
+        Chunk tail = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (tail == null || tail.end == tail.items.length) {
+            tail = new Chunk(new Visitor[CHUNK_SIZE], 0, 0);
+            chunks.add(tail);
+        }
+        tail.items[tail.end++] = visitor;
+        size++;
+        return true;
+    }
+
+    @Override
+    public synchronized Visitor poll() {
+        if (size == 0) {
+            return null;
+        }
+        Chunk head = chunks.get(0);
+        Visitor visitor = head.items[head.start++]; // Slot is left intact for snapshots
+        size--;
+        if (head.start == head.end && (chunks.size() > 1 || head.end == head.items.length)) {
+            chunks.remove(0); // Fully consumed: drop it (snapshots keep their own reference)
+        }
+        return visitor;
+    }
+
+    @Override
+    public synchronized Visitor peek() {
+        if (size == 0) {
+            return null;
+        }
+        Chunk head = chunks.get(0);
+        return head.items[head.start];
+    }
+
+    /**
+     * Removes the first equal visitor by replacing its chunk with a trimmed copy.
+     * <p>O(n) to locate plus O(chunk) to copy; other chunks are not touched.</p>
+     *
+     * @param o Visitor to remove
+     * @return true if removed
+     */
+    @Override
+    public synchronized boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        for (int c = 0; c < chunks.size(); c++) {
+            Chunk chunk = chunks.get(c);
+            for (int i = chunk.start; i < chunk.end; i++) {
+                if (o.equals(chunk.items[i])) {
+                    Visitor[] items = new Visitor[CHUNK_SIZE];
+                    int before = i - chunk.start;
+                    System.arraycopy(chunk.items, chunk.start, items, 0, before);
+                    System.arraycopy(chunk.items, i + 1, items, before, chunk.end - i - 1);
+                    int length = chunk.end - chunk.start - 1;
+                    if (length == 0 && chunks.size() > 1) {
+                        chunks.remove(c);
+                    } else {
+                        chunks.set(c, new Chunk(items, 0, length));
+                    }
+                    size--;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Captures an immutable view of the queue in O(chunks).
+     * @return QueueSnapshot sharing the current chunk arrays
+     */
+    public synchronized QueueSnapshot snapshot() {
+        int count = chunks.size();
+        Visitor[][] arrays = new Visitor[count][];
+        int[] starts = new int[count];
+        int[] ends = new int[count];
+        for (int c = 0; c < count; c++) {
+            Chunk chunk = chunks.get(c);
+            arrays[c] = chunk.items;
+            starts[c] = chunk.start;
+            ends[c] = chunk.end;
+        }
+        return new QueueSnapshot(arrays, starts, ends, size);
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void clear() {
+        chunks.clear();
+        size = 0;
+    }
+
+    /**
+     * Iterates a snapshot taken now (never throws ConcurrentModificationException).
+     * <p>Iterator.remove() removes the returned visitor from the live queue.</p>
+     *
+     * @return Iterator in boarding order
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        Iterator<Visitor> view = snapshot().iterator();
+        return new Iterator<Visitor>() {
+            private Visitor last;
+
+            @Override
+            public boolean hasNext() {
+                return view.hasNext();
+            }
+
+            @Override
+            public Visitor next() {
+                last = view.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ChunkedVisitorQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one ride cycle (Ride.dispatchCycle / Ride.runCycleAsync).
+ * <p>Design Rationale: control systems need to react to a dispatch (reroute guests, page
+ * an operator, pipeline the next ride) without scraping console output, so every cycle
+ * attempt reports what was loaded, why it failed, and how long it took.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public final class CycleResult {
+
+    /**
+     * Outcome of the cycle attempt.
+     */
+    public enum Status {
+        SUCCESS,        // Riders were loaded and the cycle counted
+        NO_OPERATOR,    // No operator assigned; nothing was loaded
+        EMPTY_QUEUE     // No boardable visitors (empty line or only no-shows)
+    }
+
+    private final String rideId;
+    private final Status status;
+    private final String reason;            // Failure reason (null on success)
+    private final int cycleNumber;          // Completed cycle number on success, else the attempted one
+    private final List<Visitor> riders;     // Riders loaded, in boarding order (empty on failure)
+    private final int[] vehicleLoads;       // Riders per car, front to back (car k seats a contiguous run)
+    private final long dispatchMillis;      // Ride clock time of the attempt
+    private final long durationNanos;       // Time spent in the cycle
+
+    private CycleResult(String rideId, Status status, String reason, int cycleNumber,
+                        List<Visitor> riders, int[] vehicleLoads, long dispatchMillis, long durationNanos) {
+        this.rideId = rideId;
+        this.status = status;
+        this.reason = reason;
+        this.cycleNumber = cycleNumber;
+        this.riders = riders;
+        this.vehicleLoads = vehicleLoads;
+        this.dispatchMillis = dispatchMillis;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Creates a successful result (copies the riders out of the ride's reused cycle buffer).
+     *
+     * @param rideId Ride that ran the cycle
+     * @param cycleNumber Completed cycle number
+     * @param riders Buffer holding the loaded riders
+     * @param loaded Number of riders in riders[0..loaded)
+     * @param vehicleLoads Buffer holding the riders seated in each car
+     * @param vehicles Number of cars in vehicleLoads[0..vehicles)
+     * @param dispatchMillis Ride clock time of the dispatch
+     * @param durationNanos Time spent in the cycle
+     * @return CycleResult with status SUCCESS
+     */
+    public static CycleResult success(String rideId, int cycleNumber, Visitor[] riders, int loaded,
+                                      int[] vehicleLoads, int vehicles, long dispatchMillis, long durationNanos) {
+        List<Visitor> boarded = Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(riders, loaded)));
+        return new CycleResult(rideId, Status.SUCCESS, null, cycleNumber, boarded,
+                Arrays.copyOf(vehicleLoads, vehicles), dispatchMillis, durationNanos);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param rideId Ride that attempted the cycle
+     * @param status Failure status (NO_OPERATOR or EMPTY_QUEUE)
+     * @param reason Human-readable failure reason
+     * @param cycleNumber Cycle number that was attempted
+     * @param dispatchMillis Ride clock time of the attempt
+     * @param durationNanos Time spent in the attempt
+     * @return CycleResult with the given failure status
+     */
+    public static CycleResult failed(String rideId, Status status, String reason, int cycleNumber,
+                                     long dispatchMillis, long durationNanos) {
+        return new CycleResult(rideId, status, reason, cycleNumber, Collections.emptyList(), new int[0], dispatchMillis, durationNanos);
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public String getRideId() { return rideId; }
+    public Status getStatus() { return status; }
+    public boolean isSuccess() { return status == Status.SUCCESS; }
+    public String getReason() { return reason; }
+    public int getCycleNumber() { return cycleNumber; }
+    public List<Visitor> getRiders() { return riders; }
+    public int getRiderCount() { return riders.size(); }
+    public int getVehicleCount() { return vehicleLoads.length; }
+    public int[] getVehicleLoads() { return vehicleLoads.clone(); }
+    public long getDispatchMillis() { return dispatchMillis; }
+    public long getDurationNanos() { return durationNanos; }
+
+    /**
+     * Gets the riders seated in one car.
+     * @param vehicle Car index (0 = front)
+     * @return List of that car's riders in boarding order
+     * @throws IndexOutOfBoundsException if vehicle is not a car of this cycle
+     */
+    public List<Visitor> getVehicleRiders(int vehicle) {
+        int from = 0;
+        for (int car = 0; car < vehicle; car++) {
+            from += vehicleLoads[car];
+        }
+        return riders.subList(from, from + vehicleLoads[vehicle]);
+    }
+
+    /**
+     * Returns a one-line summary for control-system logs.
+     * @return Formatted cycle summary
+     */
+    @Override
+    public String toString() {
+        if (status == Status.SUCCESS) {
+            String cars = vehicleLoads.length > 1 ? " | Cars: " + Arrays.toString(vehicleLoads) : "";
+            return String.format("%s Cycle %d | SUCCESS | Riders: %d%s | Took: %.3f ms",
+                    rideId, cycleNumber, riders.size(), cars, durationNanos / 1e6);
+        }
+        return String.format("%s Cycle %d | %s | Reason: %s", rideId, cycleNumber, status, reason);
+    }
+}
@@ -0,0 +1,94 @@
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Benchmark: moving one cycle's riders from the queue into history, by riders per cycle.
+ * <p>Scenarios (same ride, same line, verbose off so neither side pays for console I/O):
+ * - poll + addToHistory: the original runCycle loop, one null check, clock read and
+ *   history append per rider
+ * - bulk drain: runCycle, which drains up to maxRidersPerCycle riders into reused cycle
+ *   buffers and appends them to history in one pass (on the default LinkedList line and
+ *   on an MpscRingBuffer line, whose drainTo moves the whole batch at once)
+ * </p>
+ * <p>runCycle also pays the per-cycle bookkeeping the bare loop skips (validation, wait
+ * estimator, cycle count), so small cycles show that fixed cost. It builds no CycleResult
+ * (no event bus here); dispatchCycle would add that copy.</p>
+ * <p>Run: {@code java -Xms2g -Xmx2g CycleTransferBenchmark}. The per-rider column is the
+ * number to compare; the original loop also printed one line per rider, which is not
+ * counted here.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class CycleTransferBenchmark {
+    private static final int[] RIDERS_PER_CYCLE = {3, 30, 300};
+    private static final int RIDERS_PER_ROUND = 120_000; // Every round boards the whole line
+
+    public static void main(String[] args) {
+        Employee operator = new Employee("E902", "Bench Operator", 40, "EMP-902", "Operator");
+        System.out.println("[BENCHMARK] Queue-to-history transfer per cycle, by riders per cycle");
+        for (int riders : RIDERS_PER_CYCLE) {
+            int cycles = RIDERS_PER_ROUND / riders;
+            List<Visitor> line = createLine(RIDERS_PER_ROUND);
+
+            Ride[] loopRide = new Ride[1];
+            LinkedList<Visitor> queue = new LinkedList<>();
+            double loop = Benchmark.measure(() -> {
+                loopRide[0] = newRide(operator, riders, new LinkedList<>());
+                queue.clear();
+                queue.addAll(line);
+            }, i -> {
+                long boarded = 0;
+                for (int seat = 0; seat < riders && !queue.isEmpty(); seat++) {
+                    loopRide[0].addToHistory(queue.poll());
+                    boarded++;
+                }
+                return boarded;
+            }, cycles);
+            Benchmark.report("poll + addToHistory (" + riders + " riders)", riders, loop);
+
+            Ride[] bulkRide = new Ride[1];
+            double bulk = Benchmark.measure(() -> {
+                bulkRide[0] = newRide(operator, riders, new LinkedList<>());
+                bulkRide[0].addAllToQueue(line);
+            }, i -> {
+                bulkRide[0].runCycle(); // Every cycle boards a full load: the line holds cycles x riders
+                return riders;
+            }, cycles);
+            Benchmark.report("bulk drain, LinkedList (" + riders + " riders)", riders, bulk);
+
+            double ring = Benchmark.measure(() -> {
+                bulkRide[0] = newRide(operator, riders, new MpscRingBuffer<>(line.size()));
+                bulkRide[0].addAllToQueue(line);
+            }, i -> {
+                bulkRide[0].runCycle();
+                return riders;
+            }, cycles);
+            Benchmark.report("bulk drain, ring (" + riders + " riders)", riders, ring);
+            System.out.printf("  %-36s %,8.1f / %,8.1f / %,8.1f ns/rider%n", "per rider (loop / LinkedList / ring)",
+                    loop / riders, bulk / riders, ring / riders);
+        }
+    }
+
+    /**
+     * Creates a quiet ride with the given capacity and line implementation.
+     */
+    private static Ride newRide(Employee operator, int riders, Queue<Visitor> line) {
+        Ride ride = new Ride("B003", "Transfer Bench", operator, riders, line);
+        ride.setVerbose(false);
+        return ride;
+    }
+
+    /**
+     * Builds a line of distinct visitors.
+     */
+    private static List<Visitor> createLine(int length) {
+        List<Visitor> line = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            line.add(new Visitor("P" + i, "Guest " + i, 10 + i % 60, "CT-" + i, i % 4 == 0 ? "VIP" : "Regular"));
+        }
+        return line;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Planned-vs-actual dispatch timing for one ride driven by RideDispatcher.
+ * <p>Lateness = actual start - planned start of each executed cycle. A slot whose planned
+ * start passed a full interval (or more) before it could run is skipped and counted as
+ * missed, not executed: it was lost to a slow cycle or an overloaded dispatcher.</p>
+ * <p>Thread Safety: written by the dispatcher thread running the ride, read by monitoring
+ * threads; all access is synchronized (one uncontended lock per cycle).</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class DispatchStats {
+    private final long intervalNanos;   // Planned time between dispatches
+    private long dispatchCount;         // Scheduled dispatches executed
+    private long missedCount;           // Slots skipped because they were already past
+    private long failureCount;          // Dispatches that threw an exception
+    private long totalLatenessNanos;    // Sum of lateness (for the mean)
+    private long maxLatenessNanos;      // Worst lateness observed
+    private long lastPlannedMillis;     // Planned wall-clock time of the latest dispatch
+    private long lastActualMillis;      // Actual wall-clock time of the latest dispatch
+
+    /**
+     * Creates empty statistics for a ride scheduled at a fixed interval.
+     * @param intervalNanos Planned dispatch interval in nanoseconds
+     */
+    public DispatchStats(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * Records one dispatch.
+     *
+     * @param plannedMillis Planned wall-clock start
+     * @param actualMillis Actual wall-clock start
+     * @param latenessNanos Actual - planned start (monotonic clock, never negative)
+     */
+    public synchronized void recordDispatch(long plannedMillis, long actualMillis, long latenessNanos) {
+        dispatchCount++;
+        totalLatenessNanos += latenessNanos;
+        maxLatenessNanos = Math.max(maxLatenessNanos, latenessNanos);
+        lastPlannedMillis = plannedMillis;
+        lastActualMillis = actualMillis;
+    }
+
+    /**
+     * Records slots that were skipped because their planned start had already passed.
+     * @param slots Number of skipped slots
+     */
+    public synchronized void recordMissed(long slots) {
+        missedCount += slots;
+    }
+
+    /**
+     * Records a dispatch whose runCycle threw an exception.
+     */
+    public synchronized void recordFailure() {
+        failureCount++;
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public synchronized long getDispatchCount() { return dispatchCount; }
+    public synchronized long getMissedCount() { return missedCount; }
+    public synchronized long getFailureCount() { return failureCount; }
+    public synchronized long getLastPlannedMillis() { return lastPlannedMillis; }
+    public synchronized long getLastActualMillis() { return lastActualMillis; }
+    public synchronized double getMaxLatenessMillis() { return maxLatenessNanos / 1e6; }
+    public long getIntervalMillis() { return intervalNanos / 1_000_000; }
+
+    /**
+     * Gets the mean lateness (scheduler jitter) across all dispatches.
+     * @return double mean lateness in milliseconds (0 before the first dispatch)
+     */
+    public synchronized double getMeanLatenessMillis() {
+        return dispatchCount == 0 ? 0 : totalLatenessNanos / 1e6 / dispatchCount;
+    }
+
+    /**
+     * Returns a one-line summary for dashboards and logs.
+     * @return Formatted dispatch statistics
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("Dispatches: %d | Missed: %d | Failures: %d | Mean lateness: %.2f ms | Max lateness: %.2f ms",
+                dispatchCount, missedCount, failureCount, getMeanLatenessMillis(), getMaxLatenessMillis());
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Benchmark: hasRidden lookup cost as the history grows from 10k to 10M entries.
+ * <p>Scenarios (HistoryStore.contains, which Ride.hasRidden wraps):
+ * - hit / miss: registry lookup + ridden-ordinal bit test
+ * - hit / miss with Bloom filter: misses are answered by the filter alone
+ * </p>
+ * <p>Histories hold up to 1M distinct visitors; larger ones are repeat rides (10M = ten
+ * rides each). Probes are fresh Visitor objects, as a gate would build from a scan.</p>
+ * <p>Run: {@code java -Xms3g -Xmx3g HasRiddenBenchmark}. Every column should stay flat as
+ * the history grows.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class HasRiddenBenchmark {
+    private static final int[] HISTORY_SIZES = {10_000, 1_000_000, 10_000_000};
+    private static final int MAX_DISTINCT = 1_000_000;
+    private static final int PROBES = 4_096;
+    private static final int LOOKUPS_PER_ROUND = 1_000_000;
+
+    public static void main(String[] args) {
+        System.out.println("[BENCHMARK] hasRidden lookup, by history entries");
+        for (int entries : HISTORY_SIZES) {
+            int distinct = Math.min(entries, MAX_DISTINCT);
+            HistoryStore history = new HistoryStore();
+            for (int i = 0; i < entries; i++) {
+                int v = i % distinct;
+                history.append(new Visitor("P" + v, "Guest " + v, 10 + v % 60, "HR-" + v, v % 4 == 0 ? "VIP" : "Regular"), i, i / 30);
+            }
+            Visitor[] hits = new Visitor[PROBES];
+            Visitor[] misses = new Visitor[PROBES];
+            for (int i = 0; i < PROBES; i++) {
+                int v = (int) ((long) i * distinct / PROBES);
+                hits[i] = new Visitor("P" + v, "Guest " + v, 30, "HR-" + v, "Regular");
+                misses[i] = new Visitor("Q" + i, "Stranger " + i, 30, "NEW-" + i, "Regular");
+            }
+
+            Benchmark.report("hit", entries, measure(history, hits));
+            Benchmark.report("miss", entries, measure(history, misses));
+            history.setBloomFilter(new BloomFilter(distinct, 0.01, 64L << 20));
+            Benchmark.report("hit (Bloom filter)", entries, measure(history, hits));
+            Benchmark.report("miss (Bloom filter)", entries, measure(history, misses));
+        }
+    }
+
+    /**
+     * Times contains() over the probes (cycled) and fails loudly if an answer is wrong.
+     */
+    private static double measure(HistoryStore history, Visitor[] probes) {
+        boolean expected = history.contains(probes[0]);
+        return Benchmark.measure(null, i -> {
+            if (history.contains(probes[i & (PROBES - 1)]) != expected) {
+                throw new IllegalStateException("Wrong hasRidden answer for " + probes[i & (PROBES - 1)].getVisitorId());
+            }
+            return 1;
+        }, LOOKUPS_PER_ROUND);
+    }
+}
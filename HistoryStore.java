@@ -0,0 +1,716 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Append-only columnar store of a ride's history.
+ * <p>Design Choices:
+ * - One primitive column per attribute: visitor ordinal (int, see VisitorRegistry), age
+ *   (int), membership (byte code into a small per-store dictionary), dispatch time (long)
+ *   and cycle number (int); about 21 bytes per entry instead of a LinkedList node plus a
+ *   Visitor graph
+ * - Columns are split into fixed 4096-entry chunks, so appends never copy the whole
+ *   history and index i is found with a shift and a mask; the newest chunk starts small
+ *   and doubles, keeping short histories cheap
+ * - Scans walk dense primitive arrays chunk by chunk (cache-friendly, no pointer chasing)
+ * - A bit set over visitor ordinals answers "has this visitor ridden?" in O(1); an
+ *   optional Bloom filter in front of it answers most first-time riders without even the
+ *   registry lookup
+ * - Entries are appended in dispatch order, so the timestamp column is sorted and time-range
+ *   queries binary-search it: O(log n + k). If an out-of-order time is ever appended (clock
+ *   step, legacy recovery) range queries fall back to a linear column scan
+ * - Storage order is never rewritten; an optional sorted index (entry indices ordered by an
+ *   EntryOrder over the columns, ties by index) is kept up to date on every append in
+ *   O(log n), so sorted iteration needs no re-sort and chronological order survives. The
+ *   index is plain int blocks (about 4-8 bytes per entry) and never materializes a Visitor
+ * - Visitors are materialized on read as fresh copies (name and ids from the registry's
+ *   record, age and membership from the entry), so callers can never modify stored history
+ * - By default the store owns its VisitorRegistry (no lock shared with other rides, and
+ *   clear() releases the visitors too); a registry passed in is shared and never cleared
+ * </p>
+ * <p>Thread Safety: written by one thread at a time (the ride's cycle or history lock).
+ * contains(), containsOrdinal() and getDistinctVisitorCount() may run on other threads
+ * while it appends: they see every append that happened before the call and may miss one
+ * racing with it, but never fail. With a Bloom filter attached its hit counters are
+ * approximate under such races. Everything else is single-threaded.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class HistoryStore implements Iterable<Visitor> {
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;     // Entries per full chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16;             // First allocation of a new chunk
+    private static final int MAX_MEMBERSHIP_CODES = 256;        // byte column
+
+    /**
+     * Column slices for up to CHUNK_SIZE consecutive entries.
+     */
+    private static final class Chunk {
+        int[] ordinals;
+        int[] ages;
+        byte[] memberships;
+        long[] timestamps;
+        int[] cycles;
+
+        Chunk(int capacity) {
+            ordinals = new int[capacity];
+            ages = new int[capacity];
+            memberships = new byte[capacity];
+            timestamps = new long[capacity];
+            cycles = new int[capacity];
+        }
+
+        void grow(int capacity) {
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            memberships = Arrays.copyOf(memberships, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            cycles = Arrays.copyOf(cycles, capacity);
+        }
+    }
+
+    /**
+     * Sort order over history entries, read straight from the columns.
+     */
+    @FunctionalInterface
+    public interface EntryOrder {
+
+        /**
+         * Compares two entries of a history (e.g. via membershipAt, ageAt, nameAt).
+         * @param history Store holding both entries
+         * @param a First entry index
+         * @param b Second entry index
+         * @return int negative if a sorts first, positive if b does, 0 if tied
+         */
+        int compare(HistoryStore history, int a, int b);
+    }
+
+    /**
+     * Entry indices in sort order, kept as a list of sorted int blocks (a two-level B-tree).
+     * <p>Insertion binary-searches the blocks by their last entry, then the block, and shifts
+     * at most BLOCK_SIZE ints. A full block splits in half, except when the entry sorts after
+     * everything: then a new block starts, so keys arriving in order pack blocks full.
+     * Equal entries keep insertion order (a new entry goes after its equals).</p>
+     */
+    private static final class SortedIndex {
+        private static final int BLOCK_SIZE = 512;          // Max entries per block
+        private static final int INITIAL_BLOCK = 16;        // First allocation of a new block
+
+        private final HistoryStore history;
+        private final EntryOrder order;
+        private int[][] blocks = new int[4][];              // Sorted runs, in order
+        private int[] blockSizes = new int[4];              // Entries used in each block
+        private int blockCount;
+
+        SortedIndex(HistoryStore history, EntryOrder order) {
+            this.history = history;
+            this.order = order;
+        }
+
+        void add(int entry) {
+            if (blockCount == 0) {
+                insertBlock(0, new int[INITIAL_BLOCK], 0);
+            }
+            // First block whose last entry sorts after the new one (else the last block)
+            int low = 0;
+            int high = blockCount - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (order.compare(history, entry, blocks[mid][blockSizes[mid] - 1]) < 0) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            int b = low;
+            int[] block = blocks[b];
+            int n = blockSizes[b];
+            int lo = 0;
+            int hi = n;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (order.compare(history, entry, block[mid]) < 0) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            int position = lo;
+            if (n == block.length && n < BLOCK_SIZE) {
+                block = Arrays.copyOf(block, Math.min(BLOCK_SIZE, n * 2));
+                blocks[b] = block;
+            } else if (n == BLOCK_SIZE) {
+                if (position == n && b == blockCount - 1) { // Sorts after everything: start a new block
+                    int[] fresh = new int[INITIAL_BLOCK];
+                    fresh[0] = entry;
+                    insertBlock(b + 1, fresh, 1);
+                    return;
+                }
+                int half = n / 2;
+                int[] right = new int[BLOCK_SIZE];
+                System.arraycopy(block, half, right, 0, n - half);
+                blockSizes[b] = half;
+                insertBlock(b + 1, right, n - half);
+                if (position > half) {
+                    b++;
+                    block = right;
+                    position -= half;
+                    n -= half;
+                } else {
+                    n = half;
+                }
+            }
+            System.arraycopy(block, position, block, position + 1, n - position);
+            block[position] = entry;
+            blockSizes[b] = n + 1;
+        }
+
+        private void insertBlock(int at, int[] block, int used) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+                blockSizes = Arrays.copyOf(blockSizes, blockCount * 2);
+            }
+            System.arraycopy(blocks, at, blocks, at + 1, blockCount - at);
+            System.arraycopy(blockSizes, at, blockSizes, at + 1, blockCount - at);
+            blocks[at] = block;
+            blockSizes[at] = used;
+            blockCount++;
+        }
+
+        void clear() {
+            blocks = new int[4][];
+            blockSizes = new int[4];
+            blockCount = 0;
+        }
+
+        long bytes() {
+            long bytes = 2 * 16L + blocks.length * (8L + 4); // Directory arrays
+            for (int b = 0; b < blockCount; b++) {
+                bytes += 16 + 4L * blocks[b].length;
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Ordinals with at least one entry, readable while the writer adds to it.
+     * <p>Words live in an AtomicLongArray published through a volatile field: the writer
+     * copies them into a larger array before publishing it, so a reader sees the old or the
+     * new array, never a half-grown one, and every word read is atomic.</p>
+     */
+    private static final class OrdinalSet {
+        private static final int INITIAL_WORDS = 16;
+        private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+        private volatile int cardinality;   // Bits set (written by the writer only)
+
+        boolean get(int ordinal) {
+            AtomicLongArray current = words;
+            int word = ordinal >>> 6;
+            return word < current.length() && (current.get(word) & (1L << ordinal)) != 0;
+        }
+
+        /**
+         * Sets a bit (writer only).
+         * @return true if the bit was clear
+         */
+        boolean add(int ordinal) {
+            AtomicLongArray current = words;
+            int word = ordinal >>> 6;
+            if (word >= current.length()) {
+                AtomicLongArray grown = new AtomicLongArray(Math.max(word + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.setPlain(i, current.getPlain(i)); // Published by the volatile write below
+                }
+                words = grown;
+                current = grown;
+            }
+            long bits = current.get(word);
+            long mask = 1L << ordinal;
+            if ((bits & mask) != 0) {
+                return false;
+            }
+            current.set(word, bits | mask);
+            cardinality++;
+            return true;
+        }
+
+        int nextSetBit(int from) {
+            AtomicLongArray current = words;
+            for (int word = from >>> 6; word < current.length(); word++) {
+                long bits = current.get(word) & (word == from >>> 6 ? -1L << from : -1L);
+                if (bits != 0) {
+                    return (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            return -1;
+        }
+
+        void clear() {
+            words = new AtomicLongArray(INITIAL_WORDS);
+            cardinality = 0;
+        }
+
+        long bytes() {
+            return words.length() * 8L;
+        }
+    }
+
+    private final VisitorRegistry registry;
+    private final boolean ownsRegistry;  // Registry created by (and cleared with) this store
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final Map<String, Byte> membershipCodes = new HashMap<>(); // Membership -> code
+    private final String[] membershipTypes = new String[MAX_MEMBERSHIP_CODES]; // Code -> membership
+    private final OrdinalSet riddenOrdinals = new OrdinalSet(); // Ordinals with at least one entry
+    private BloomFilter bloomFilter;    // Fast negative path for contains() (null = off)
+    private long bloomNegatives;        // contains() answered "no" by the filter alone
+    private long bloomFalsePositives;   // Filter said "maybe", exact index said "no"
+    private SortedIndex sortedIndex;    // Entry indices in sort order (null = off)
+    private boolean timeOrdered = true; // Timestamp column is non-decreasing (binary search valid)
+    private long lastTimestamp = Long.MIN_VALUE; // Newest timestamp appended
+    private int size;
+    private int modCount;               // Structural changes (fail-fast iteration)
+
+    /**
+     * Creates an empty store with its own visitor registry.
+     */
+    public HistoryStore() {
+        this.registry = new VisitorRegistry();
+        this.ownsRegistry = true;
+    }
+
+    /**
+     * Creates an empty store resolving visitors through a shared registry.
+     * @param registry Registry assigning visitor ordinals (non-null; never cleared by this store)
+     */
+    public HistoryStore(VisitorRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("Visitor registry must not be null");
+        }
+        this.registry = registry;
+        this.ownsRegistry = false;
+    }
+
+    /**
+     * Appends one ride to the history.
+     *
+     * @param visitor Visitor who rode (non-null)
+     * @param timestampMillis Dispatch time
+     * @param cycleNumber Cycle that carried the visitor (0 = recorded outside a cycle)
+     * @return int index of the new entry
+     * @throws IllegalStateException if more than 256 distinct membership types are stored
+     */
+    public int append(Visitor visitor, long timestampMillis, int cycleNumber) {
+        int offset = size & CHUNK_MASK;
+        Chunk chunk;
+        if (offset == 0 && size >> CHUNK_SHIFT == chunks.size()) {
+            chunk = new Chunk(INITIAL_CAPACITY);
+            chunks.add(chunk);
+        } else {
+            chunk = chunks.get(size >> CHUNK_SHIFT);
+            if (offset == chunk.ordinals.length) {
+                chunk.grow(Math.min(CHUNK_SIZE, offset * 2));
+            }
+        }
+        int ordinal = registry.register(visitor);
+        chunk.ordinals[offset] = ordinal;
+        if (riddenOrdinals.add(ordinal)) {
+            if (bloomFilter != null) {
+                bloomFilter.put(BloomFilter.mix(visitor.hashCode())); // One key per distinct visitor
+            }
+        }
+        chunk.ages[offset] = visitor.getAge();
+        chunk.memberships[offset] = membershipCode(visitor.getMembershipType());
+        chunk.timestamps[offset] = timestampMillis;
+        chunk.cycles[offset] = cycleNumber;
+        if (timestampMillis < lastTimestamp) {
+            timeOrdered = false;
+        }
+        lastTimestamp = Math.max(lastTimestamp, timestampMillis);
+        modCount++;
+        int index = size++;
+        if (sortedIndex != null) {
+            sortedIndex.add(index); // O(log n): the entry is readable, so the order can see it
+        }
+        return index;
+    }
+
+    // ------------------------------ Column Access ------------------------------
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public VisitorRegistry getRegistry() { return registry; }
+    public int ordinalAt(int index) { return chunk(index).ordinals[index & CHUNK_MASK]; }
+    public int ageAt(int index) { return chunk(index).ages[index & CHUNK_MASK]; }
+    public long timestampAt(int index) { return chunk(index).timestamps[index & CHUNK_MASK]; }
+    public int cycleAt(int index) { return chunk(index).cycles[index & CHUNK_MASK]; }
+    public boolean isTimeOrdered() { return timeOrdered; }
+
+    /**
+     * Gets the membership type recorded for an entry.
+     * @param index Entry index
+     * @return membership type at the time of the ride
+     */
+    public String membershipAt(int index) {
+        return membershipTypes[chunk(index).memberships[index & CHUNK_MASK] & 0xFF];
+    }
+
+    /**
+     * Materializes one entry as a new Visitor (modifying it does not change the history).
+     * @param index Entry index (0 = oldest)
+     * @return Visitor equal to the one who rode (same visitorId; name as first recorded)
+     * @throws IndexOutOfBoundsException if index is out of range
+     */
+    public Visitor get(int index) {
+        Chunk chunk = chunk(index);
+        int offset = index & CHUNK_MASK;
+        Visitor record = registry.visitor(chunk.ordinals[offset]);
+        return new Visitor(record.getId(), record.getName(), chunk.ages[offset], record.getVisitorId(),
+                membershipTypes[chunk.memberships[offset] & 0xFF]);
+    }
+
+    /**
+     * Gets the visitors dispatched in a time range, oldest first.
+     * <p>O(log n + k) by binary search on the timestamp column (linear scan if the column
+     * is not time-ordered).</p>
+     *
+     * @param fromMillis Range start (inclusive)
+     * @param toMillis Range end (exclusive)
+     * @return List of visitors who rode in [fromMillis, toMillis)
+     */
+    public List<Visitor> getBetween(long fromMillis, long toMillis) {
+        List<Visitor> riders = new ArrayList<>();
+        if (timeOrdered) {
+            for (int i = lowerBound(fromMillis), end = lowerBound(toMillis); i < end; i++) {
+                riders.add(get(i));
+            }
+            return riders;
+        }
+        for (int i = 0; i < size; i++) {
+            long time = timestampAt(i);
+            if (time >= fromMillis && time < toMillis) {
+                riders.add(get(i));
+            }
+        }
+        return riders;
+    }
+
+    /**
+     * Counts the rides dispatched in a time range (e.g. hourly throughput).
+     * <p>O(log n) when time-ordered, otherwise a linear scan of the timestamp column.</p>
+     *
+     * @param fromMillis Range start (inclusive)
+     * @param toMillis Range end (exclusive)
+     * @return int number of entries in [fromMillis, toMillis)
+     */
+    public int countBetween(long fromMillis, long toMillis) {
+        if (timeOrdered) {
+            return Math.max(0, lowerBound(toMillis) - lowerBound(fromMillis));
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long time = timestampAt(i);
+            if (time >= fromMillis && time < toMillis) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first entry dispatched at or after a time (requires a time-ordered column).
+     * @param timeMillis Time to search for
+     * @return int index of the first entry with timestamp >= timeMillis (size if none)
+     */
+    private int lowerBound(long timeMillis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(mid) < timeMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks whether a visitor ordinal appears in the history (O(1) bit test).
+     * @param ordinal VisitorRegistry ordinal
+     * @return true if any entry has that ordinal
+     */
+    public boolean containsOrdinal(int ordinal) {
+        return ordinal >= 0 && riddenOrdinals.get(ordinal);
+    }
+
+    /**
+     * Checks whether a visitor appears in the history (registry lookup + bit test, O(1)).
+     * @param visitor Visitor to check (matched by Visitor.equals, i.e. visitorId)
+     * @return true if the visitor has ridden
+     */
+    public boolean contains(Visitor visitor) {
+        if (bloomFilter == null) {
+            return containsOrdinal(registry.ordinalOf(visitor));
+        }
+        if (!bloomFilter.mightContain(BloomFilter.mix(visitor.hashCode()))) {
+            bloomNegatives++; // Definite no: skip the exact index
+            return false;
+        }
+        boolean exists = containsOrdinal(registry.ordinalOf(visitor));
+        if (!exists) {
+            bloomFalsePositives++;
+        }
+        return exists;
+    }
+
+    /**
+     * Puts a Bloom filter in front of contains(), loaded with every visitor already stored.
+     * @param filter Empty filter sized for the expected distinct visitors (null = remove)
+     */
+    public void setBloomFilter(BloomFilter filter) {
+        if (filter != null) {
+            for (int ordinal = riddenOrdinals.nextSetBit(0); ordinal >= 0; ordinal = riddenOrdinals.nextSetBit(ordinal + 1)) {
+                filter.put(BloomFilter.mix(registry.visitor(ordinal).hashCode()));
+            }
+        }
+        this.bloomFilter = filter;
+        bloomNegatives = 0;
+        bloomFalsePositives = 0;
+    }
+
+    // ------------------------------ Bloom Filter Metrics ------------------------------
+    public BloomFilter getBloomFilter() { return bloomFilter; }
+    public long getBloomNegatives() { return bloomNegatives; }
+    public long getBloomFalsePositives() { return bloomFalsePositives; }
+
+    /**
+     * Gets the observed false-positive rate: filter "maybe" answers for visitors who had
+     * not ridden, out of all lookups for visitors who had not ridden.
+     * @return double observed rate (0 before any negative lookup)
+     */
+    public double getObservedFalsePositiveRate() {
+        long negatives = bloomNegatives + bloomFalsePositives;
+        return negatives == 0 ? 0 : (double) bloomFalsePositives / negatives;
+    }
+
+    /**
+     * Gets the number of distinct visitors in the history.
+     * @return int distinct riders
+     */
+    public int getDistinctVisitorCount() {
+        return riddenOrdinals.cardinality;
+    }
+
+    // ------------------------------ Sorted Index ------------------------------
+    /**
+     * Keeps a sorted index over the entries, built now in O(n log n) and then maintained on
+     * every append in O(log n). Entries that compare equal stay in chronological order.
+     * <p>Sort keys are read from the columns (nameAt comes from the registry's record, as
+     * first seen); no Visitor is materialized while sorting.</p>
+     *
+     * @param order Entry ordering (null = drop the index and stop paying for it on appends)
+     */
+    public void setSortOrder(EntryOrder order) {
+        sortedIndex = order == null ? null : buildIndex(order);
+    }
+
+    /**
+     * Checks whether a sorted index is maintained.
+     * @return true after setSortOrder() with a non-null order
+     */
+    public boolean isSorted() {
+        return sortedIndex != null;
+    }
+
+    /**
+     * Iterates entries in the maintained sort order, materializing each Visitor (fail-fast, read-only).
+     * @return Iterator over the history in sorted order
+     * @throws IllegalStateException if no sort order is set
+     */
+    public Iterator<Visitor> sortedIterator() {
+        if (sortedIndex == null) {
+            throw new IllegalStateException("No sort order set on this history");
+        }
+        return iterate(sortedIndex);
+    }
+
+    /**
+     * Gets the name recorded for an entry's visitor (no Visitor is materialized).
+     * @param index Entry index
+     * @return visitor name as first recorded in this store's registry
+     */
+    public String nameAt(int index) {
+        return registry.visitor(ordinalAt(index)).getName();
+    }
+
+    private SortedIndex buildIndex(EntryOrder order) {
+        SortedIndex index = new SortedIndex(this, order);
+        for (int i = 0; i < size; i++) {
+            index.add(i);
+        }
+        return index;
+    }
+
+    /**
+     * Walks an index block by block, failing fast if the store changes.
+     */
+    private Iterator<Visitor> iterate(SortedIndex index) {
+        return new Iterator<Visitor>() {
+            private final int expectedModCount = modCount;
+            private int block;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                return block < index.blockCount;
+            }
+
+            @Override
+            public Visitor next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (block >= index.blockCount) {
+                    throw new NoSuchElementException();
+                }
+                Visitor visitor = get(index.blocks[block][offset]);
+                if (++offset == index.blockSizes[block]) {
+                    block++;
+                    offset = 0;
+                }
+                return visitor;
+            }
+        };
+    }
+
+    /**
+     * Removes all entries (the membership dictionary is kept; an owned registry is cleared).
+     */
+    public void clear() {
+        chunks.clear();
+        riddenOrdinals.clear();
+        if (ownsRegistry) {
+            registry.clear();
+        }
+        if (sortedIndex != null) {
+            sortedIndex.clear();
+        }
+        timeOrdered = true;
+        lastTimestamp = Long.MIN_VALUE;
+        if (bloomFilter != null) {
+            bloomFilter.clear();
+        }
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Materializes the whole history (oldest first) for callers that need a List.
+     * @return new LinkedList of visitors
+     */
+    public LinkedList<Visitor> toLinkedList() {
+        LinkedList<Visitor> list = new LinkedList<>();
+        for (Visitor visitor : this) {
+            list.add(visitor);
+        }
+        return list;
+    }
+
+    /**
+     * Materializes the whole history in the maintained sort order.
+     * @return new LinkedList of visitors
+     * @throws IllegalStateException if no sort order is set
+     */
+    public LinkedList<Visitor> toSortedList() {
+        return collect(sortedIterator());
+    }
+
+    /**
+     * Materializes the whole history in a given order without keeping an index afterwards
+     * (O(n log n) per call; use setSortOrder when sorted reads are frequent).
+     * @param order Entry ordering (non-null)
+     * @return new LinkedList of visitors
+     */
+    public LinkedList<Visitor> toSortedList(EntryOrder order) {
+        return collect(iterate(buildIndex(order)));
+    }
+
+    private static LinkedList<Visitor> collect(Iterator<Visitor> iterator) {
+        LinkedList<Visitor> list = new LinkedList<>();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    /**
+     * Estimates the heap used by the columns and indexes (excluding the registry).
+     * @return long approximate bytes
+     */
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Chunk chunk : chunks) {
+            bytes += 5L * 16 + (long) chunk.ordinals.length * (4 + 4 + 1 + 8 + 4); // Array headers + cells
+        }
+        bytes += riddenOrdinals.bytes() + (bloomFilter == null ? 0 : bloomFilter.getByteSize());
+        return bytes + (sortedIndex == null ? 0 : sortedIndex.bytes());
+    }
+
+    /**
+     * Iterates entries oldest first, materializing each Visitor (fail-fast, read-only).
+     * @return Iterator over the history
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        return new Iterator<Visitor>() {
+            private final int expectedModCount = modCount;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Visitor next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    private Chunk chunk(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("History index " + index + " out of range (size " + size + ")");
+        }
+        return chunks.get(index >> CHUNK_SHIFT);
+    }
+
+    private byte membershipCode(String membership) {
+        Byte code = membershipCodes.get(membership);
+        if (code != null) {
+            return code;
+        }
+        int next = membershipCodes.size();
+        if (next == MAX_MEMBERSHIP_CODES) {
+            throw new IllegalStateException("History store supports at most " + MAX_MEMBERSHIP_CODES + " membership types");
+        }
+        membershipTypes[next] = membership;
+        membershipCodes.put(membership, (byte) next);
+        return (byte) next;
+    }
+}
@@ -0,0 +1,283 @@
+import java.util.AbstractQueue;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO visitor queue with a hash index from each waiting visitor to its queue node.
+ * <p>Design Choices:
+ * - Intrusive doubly-linked nodes: unlinking a visitor never shifts or copies the rest of the line
+ * - HashMap index (visitor -> node): remove(Object) and contains(Object) are O(1); keys
+ *   follow Visitor.equals, so visitors without a visitorId are told apart by identity
+ * - offer()/poll() stay O(1) FIFO, so runCycle is unaffected
+ * - Position lookup: every node gets a sequence number on offer(), and a Fenwick (binary
+ *   indexed) tree counts removed sequence slots, so positionOf() is O(log n) even after
+ *   removals from the middle of the line
+ * </p>
+ * <p>A visitor can only be queued once per ride: offering a visitor equal to one that is
+ * already waiting (same visitorId) returns false. Not thread-safe (use MpscRingBuffer for concurrent gates).</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class IndexedVisitorQueue extends AbstractQueue<Visitor> {
+
+    /**
+     * Queue node linking one waiting visitor to its neighbours.
+     */
+    private static final class Node {
+        final Visitor visitor;
+        final long sequence;
+        Node prev;
+        Node next;
+
+        Node(Visitor visitor, long sequence) {
+            this.visitor = visitor;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final int MIN_WINDOW = 16;                // Smallest Fenwick window (slots)
+
+    private final Map<Visitor, Node> index = new HashMap<>(); // Visitor (equals = visitorId) -> node
+    private Node head;                                       // Next visitor to board
+    private Node tail;                                       // Most recently queued visitor
+    private int modCount;                                    // Structural changes (fail-fast iteration)
+    private long nextSequence;                               // Sequence assigned to the next offer
+    private long baseSequence;                               // Sequence mapped to Fenwick slot 0
+    private int[] removedTree = new int[MIN_WINDOW + 1];     // Fenwick tree of removed slots (1-based)
+
+    /**
+     * Appends a visitor to the back of the line.
+     *
+     * @param visitor Visitor to queue (non-null)
+     * @return true if queued, false if an equal visitor is already waiting
+     * @throws NullPointerException if visitor is null
+     */
+    @Override
+    public boolean offer(Visitor visitor) {
+        if (visitor == null) {
+            throw new NullPointerException("IndexedVisitorQueue does not accept null visitors");
+        }
+        if (index.containsKey(visitor)) {
+            return false;
+        }
+        if (nextSequence - baseSequence >= removedTree.length - 1) {
+            rebuildWindow();
+        }
+        Node node = new Node(visitor, nextSequence++);
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+        }
+        tail = node;
+        index.put(visitor, node);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes and returns the visitor at the front of the line.
+     * @return head visitor, or null if empty
+     */
+    @Override
+    public Visitor poll() {
+        if (head == null) {
+            return null;
+        }
+        Node node = head;
+        unlink(node);
+        return node.visitor;
+    }
+
+    /**
+     * Returns (without removing) the visitor at the front of the line.
+     * @return head visitor, or null if empty
+     */
+    @Override
+    public Visitor peek() {
+        return head == null ? null : head.visitor;
+    }
+
+    /**
+     * Removes a visitor from anywhere in the line in O(1) via the visitor index.
+     *
+     * @param o Visitor to remove
+     * @return true if removed, false if not queued
+     */
+    @Override
+    public boolean remove(Object o) {
+        Node node = find(o);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Tests membership in O(1) via the visitor index.
+     * @param o Visitor to look up
+     * @return true if the visitor is waiting in this queue
+     */
+    @Override
+    public boolean contains(Object o) {
+        return find(o) != null;
+    }
+
+    /**
+     * Returns the 1-based position of a visitor in the line in O(log n).
+     * <p>Position = slots from the window start up to the visitor's sequence number,
+     * minus the removed slots counted by the Fenwick tree.</p>
+     *
+     * @param visitor Visitor to look up
+     * @return int position (1 = next to board), or -1 if not queued
+     */
+    public int positionOf(Visitor visitor) {
+        Node node = find(visitor);
+        if (node == null) {
+            return -1;
+        }
+        int slot = (int) (node.sequence - baseSequence);
+        return slot + 1 - removedBefore(slot + 1);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        head = null;
+        tail = null;
+        baseSequence = nextSequence;
+        removedTree = new int[MIN_WINDOW + 1];
+        modCount++;
+    }
+
+    /**
+     * Returns a fail-fast iterator in boarding order (supports remove()).
+     * @return Iterator from head to tail
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        return new Iterator<Visitor>() {
+            private Node next = head;
+            private Node last;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Visitor next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = next.next;
+                return last.visitor;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                unlink(last);
+                last = null;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    /**
+     * Looks up the node for a visitor (Visitor.equals: same visitorId, else same object).
+     */
+    private Node find(Object o) {
+        return o instanceof Visitor ? index.get(o) : null;
+    }
+
+    /**
+     * Detaches a node from the list and the index in O(1).
+     */
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        index.remove(node.visitor);
+        markRemoved((int) (node.sequence - baseSequence));
+        modCount++;
+    }
+
+    // ------------------------------ Fenwick Tree (removed slots) ------------------------------
+    /**
+     * Records a removed sequence slot (O(log n)).
+     */
+    private void markRemoved(int slot) {
+        for (int i = slot + 1; i < removedTree.length; i += i & -i) {
+            removedTree[i]++;
+        }
+    }
+
+    /**
+     * Counts removed slots among the first {@code slots} slots of the window (O(log n)).
+     */
+    private int removedBefore(int slots) {
+        int removed = 0;
+        for (int i = slots; i > 0; i -= i & -i) {
+            removed += removedTree[i];
+        }
+        return removed;
+    }
+
+    /**
+     * Slides the window start to the current head and resizes the tree when the
+     * sequence numbers outgrow it.
+     * <p>Runs in O(window) and at most once per window's worth of offers (amortised O(1)).
+     * The tree is rebuilt bottom-up in linear time rather than with n point updates.</p>
+     */
+    private void rebuildWindow() {
+        long newBase = head == null ? nextSequence : head.sequence;
+        int window = (int) (nextSequence - newBase);
+        int slots = Math.max(MIN_WINDOW, Integer.highestOneBit(Math.max(1, window)) << 2);
+        int[] tree = new int[slots + 1];
+        for (int i = 1; i <= window; i++) {
+            tree[i] = 1; // Assume removed, then clear the slots still holding visitors
+        }
+        for (Node node = head; node != null; node = node.next) {
+            tree[(int) (node.sequence - newBase) + 1] = 0;
+        }
+        for (int i = 1; i <= slots; i++) {
+            int parent = i + (i & -i);
+            if (parent <= slots) {
+                tree[parent] += tree[i];
+            }
+        }
+        baseSequence = newBase;
+        removedTree = tree;
+    }
+}
@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark: RideJournal recovery time after one million logged mutations.
+ * <p>Scenarios (same workload: enqueues, removals and 30-rider cycles, ~1M records):
+ * - no checkpoints: recovery replays every record the ride ever logged
+ * - checkpoints: recovery reads the last snapshot plus the records after it
+ * </p>
+ * <p>Run: {@code java JournalBenchmark}. Journals are written to a temporary directory
+ * and deleted afterwards.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class JournalBenchmark {
+    private static final int TARGET_RECORDS = 1_000_000;
+    private static final int RIDERS_PER_CYCLE = 30;
+
+    public static void main(String[] args) throws IOException {
+        Employee operator = new Employee("E901", "Bench Operator", 40, "EMP-901", "Operator");
+        Path dir = Files.createTempDirectory("journal-bench");
+        try {
+            System.out.println("[BENCHMARK] Journal recovery after ~" + TARGET_RECORDS + " records");
+            run(operator, dir.resolve("full.journal"), 0);
+            run(operator, dir.resolve("checkpointed.journal"), 100_000);
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Logs the workload with the given checkpoint interval, then times a cold recovery.
+     */
+    private static void run(Employee operator, Path log, long checkpointRecords) throws IOException {
+        Ride ride = new Ride("B002", "Journal Bench", operator, RIDERS_PER_CYCLE);
+        ride.setVerbose(false);
+        RideJournal journal = RideJournal.openAndRecover(log, ride, 4096, 0);
+        journal.setCheckpointRecords(checkpointRecords);
+        long records = 0;
+        int next = 0;
+        while (records < TARGET_RECORDS) {
+            for (int i = 0; i < 32; i++, next++) { // 32 join, 2 leave, 30 board: the line holds steady
+                ride.addToQueue(new Visitor("P" + next, "Guest " + next, 20 + next % 50, "JB-" + next, next % 4 == 0 ? "VIP" : "Regular"));
+            }
+            ride.removeFromQueue(new Visitor("P" + (next - 3), "Guest", 20, "JB-" + (next - 3), "Regular"));
+            ride.removeFromQueue(new Visitor("P" + (next - 7), "Guest", 20, "JB-" + (next - 7), "Regular"));
+            ride.runCycle();
+            records += 35;
+        }
+        long checkpoints = journal.getCheckpointCount();
+        journal.close();
+        long bytes = Files.size(log);
+
+        Ride restored = new Ride("B002", "Journal Bench", operator, RIDERS_PER_CYCLE);
+        restored.setVerbose(false);
+        long start = System.nanoTime();
+        RideJournal reopened = RideJournal.openAndRecover(log, restored, 4096, 0);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %-22s %,5d checkpoints  %,12d bytes  tail %,9d records  recovery %,8.1f ms%n",
+                checkpointRecords == 0 ? "no checkpoints" : "checkpoint every " + checkpointRecords / 1000 + "k",
+                checkpoints, bytes, reopened.getRecordsSinceCheckpoint(), elapsed / 1e6);
+        reopened.close();
+    }
+}
@@ -0,0 +1,370 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel what-if sweep: many simulated park days per configuration, aggregated into
+ * confidence intervals.
+ * <p>Design Choices:
+ * - Grid = maxRidersPerCycle (for one target ride, or every ride) x operator availability
+ *   x VIP ratio; every grid point runs runsPerConfiguration independent ParkSimulator days
+ * - Every simulated ride boards from a PriorityLaneQueue (VIP:Regular = vipWeight:1), so
+ *   the VIP ratio changes who boards first and therefore the wait distribution
+ * - Runs are split recursively over a ForkJoinPool (all cores by default); each run builds
+ *   its own rides, so runs share no mutable state
+ * - Every run's seed is a pure function of (baseSeed, configuration index, run index), and
+ *   RunResult records it: any outlier can be reproduced exactly with replay()
+ * - Aggregates report mean, standard deviation and a 95% normal-approximation interval
+ * </p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class MonteCarloSweep {
+
+    /**
+     * One grid point of the sweep.
+     */
+    public static final class Configuration {
+        private final int maxRidersPerCycle;        // Seats per cycle on the target ride(s)
+        private final double operatorAvailability;  // Probability a ride is staffed for the day
+        private final double vipRatio;              // Share of VIP visitors
+
+        public Configuration(int maxRidersPerCycle, double operatorAvailability, double vipRatio) {
+            this.maxRidersPerCycle = maxRidersPerCycle;
+            this.operatorAvailability = operatorAvailability;
+            this.vipRatio = vipRatio;
+        }
+
+        public int getMaxRidersPerCycle() { return maxRidersPerCycle; }
+        public double getOperatorAvailability() { return operatorAvailability; }
+        public double getVipRatio() { return vipRatio; }
+
+        @Override
+        public String toString() {
+            return String.format("seats=%d staffed=%.0f%% vip=%.0f%%", maxRidersPerCycle, operatorAvailability * 100, vipRatio * 100);
+        }
+    }
+
+    /**
+     * Headline metrics of one simulated day.
+     */
+    public static final class RunResult {
+        private final Configuration configuration;
+        private final long seed;                // Replays this exact day
+        private final long ridesTaken;          // Riders dispatched park-wide
+        private final double p90WaitMillis;     // Rider-weighted mean of per-ride p90 waits
+        private final int unserved;             // Visitors still queued at close
+
+        RunResult(Configuration configuration, long seed, long ridesTaken, double p90WaitMillis, int unserved) {
+            this.configuration = configuration;
+            this.seed = seed;
+            this.ridesTaken = ridesTaken;
+            this.p90WaitMillis = p90WaitMillis;
+            this.unserved = unserved;
+        }
+
+        public Configuration getConfiguration() { return configuration; }
+        public long getSeed() { return seed; }
+        public long getRidesTaken() { return ridesTaken; }
+        public double getP90WaitMillis() { return p90WaitMillis; }
+        public int getUnserved() { return unserved; }
+    }
+
+    /**
+     * Mean with a 95% confidence interval over the runs of one configuration.
+     */
+    public static final class Estimate {
+        private final double mean;
+        private final double standardDeviation;
+        private final double halfWidth;     // 1.96 x standard error
+
+        Estimate(double[] samples) {
+            int n = samples.length;
+            double sum = 0;
+            for (double sample : samples) {
+                sum += sample;
+            }
+            this.mean = n == 0 ? 0 : sum / n;
+            double squares = 0;
+            for (double sample : samples) {
+                squares += (sample - mean) * (sample - mean);
+            }
+            this.standardDeviation = n < 2 ? 0 : Math.sqrt(squares / (n - 1));
+            this.halfWidth = n < 2 ? 0 : 1.96 * standardDeviation / Math.sqrt(n);
+        }
+
+        public double getMean() { return mean; }
+        public double getStandardDeviation() { return standardDeviation; }
+        public double getLow() { return mean - halfWidth; }
+        public double getHigh() { return mean + halfWidth; }
+
+        @Override
+        public String toString() {
+            return String.format("%.1f [%.1f, %.1f]", mean, getLow(), getHigh());
+        }
+    }
+
+    /**
+     * Aggregated results of one configuration.
+     */
+    public static final class Summary {
+        private final Configuration configuration;
+        private final List<RunResult> runs;
+        private final Estimate ridesTaken;
+        private final Estimate p90WaitMinutes;
+        private final Estimate unserved;
+
+        Summary(Configuration configuration, List<RunResult> runs) {
+            this.configuration = configuration;
+            this.runs = Collections.unmodifiableList(runs);
+            double[] rides = new double[runs.size()];
+            double[] waits = new double[runs.size()];
+            double[] left = new double[runs.size()];
+            for (int i = 0; i < runs.size(); i++) {
+                rides[i] = runs.get(i).getRidesTaken();
+                waits[i] = runs.get(i).getP90WaitMillis() / 60_000.0;
+                left[i] = runs.get(i).getUnserved();
+            }
+            this.ridesTaken = new Estimate(rides);
+            this.p90WaitMinutes = new Estimate(waits);
+            this.unserved = new Estimate(left);
+        }
+
+        public Configuration getConfiguration() { return configuration; }
+        public List<RunResult> getRuns() { return runs; }
+        public Estimate getRidesTaken() { return ridesTaken; }
+        public Estimate getP90WaitMinutes() { return p90WaitMinutes; }
+        public Estimate getUnserved() { return unserved; }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s runs=%d  rides=%s  p90 wait (min)=%s  unserved=%s",
+                    configuration, runs.size(), ridesTaken, p90WaitMinutes, unserved);
+        }
+    }
+
+    /**
+     * Ride template; every run builds fresh Ride instances from it.
+     */
+    private static final class RideSpec {
+        final String rideId;
+        final String rideName;
+        final int maxRidersPerCycle;
+        final long cycleIntervalMillis;
+        final double popularity;
+
+        RideSpec(String rideId, String rideName, int maxRidersPerCycle, long cycleIntervalMillis, double popularity) {
+            this.rideId = rideId;
+            this.rideName = rideName;
+            this.maxRidersPerCycle = maxRidersPerCycle;
+            this.cycleIntervalMillis = cycleIntervalMillis;
+            this.popularity = popularity;
+        }
+    }
+
+    /**
+     * Runs a contiguous range of (configuration, run) indices, splitting in half until small.
+     */
+    private final class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final RunResult[] results;
+        private final int from;
+        private final int to;
+
+        SweepTask(RunResult[] results, int from, int to) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    Configuration configuration = grid.get(i / runsPerConfiguration);
+                    long seed = seedFor(i / runsPerConfiguration, i % runsPerConfiguration);
+                    results[i] = summarize(configuration, seed, replay(configuration, seed));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(results, from, mid), new SweepTask(results, mid, to));
+        }
+    }
+
+    private static final Employee SIMULATED_OPERATOR =
+            new Employee("SIM-OP", "Simulated Operator", 30, "SIM-OP", "Ride Operator");
+
+    private final List<RideSpec> rides = new ArrayList<>();
+    private final List<Configuration> grid = new ArrayList<>();
+    private final long baseSeed;
+    private String targetRideId;            // Ride whose seats are swept (null = every ride)
+    private int runsPerConfiguration = 100;
+    private int visitorCount = 50_000;
+    private int vipWeight = 3;              // VIP guests boarded per Regular guest while both lanes wait
+
+    /**
+     * Creates an empty sweep.
+     * @param baseSeed Seed from which every run's seed is derived
+     */
+    public MonteCarloSweep(long baseSeed) {
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Adds a ride to the simulated park template.
+     *
+     * @param rideId Ride ID
+     * @param rideName Ride name
+     * @param maxRidersPerCycle Seats per cycle when the ride is not the sweep target
+     * @param cycleIntervalMillis Time between dispatches (positive)
+     * @param popularity Relative share of visitors choosing the ride (positive)
+     */
+    public void addRide(String rideId, String rideName, int maxRidersPerCycle, long cycleIntervalMillis, double popularity) {
+        rides.add(new RideSpec(rideId, rideName, maxRidersPerCycle, cycleIntervalMillis, popularity));
+    }
+
+    /**
+     * Builds the full grid (replacing any previous one).
+     *
+     * @param targetRideId Ride whose maxRidersPerCycle is swept (null = every ride)
+     * @param maxRidersPerCycle Seat counts to try
+     * @param operatorAvailability Staffing probabilities to try (each in [0, 1])
+     * @param vipRatios VIP shares to try (each in [0, 1])
+     * @throws IllegalArgumentException if any list is empty
+     */
+    public void setGrid(String targetRideId, int[] maxRidersPerCycle, double[] operatorAvailability, double[] vipRatios) {
+        if (maxRidersPerCycle.length == 0 || operatorAvailability.length == 0 || vipRatios.length == 0) {
+            throw new IllegalArgumentException("Every sweep dimension needs at least one value");
+        }
+        this.targetRideId = targetRideId;
+        grid.clear();
+        for (int seats : maxRidersPerCycle) {
+            for (double availability : operatorAvailability) {
+                for (double vip : vipRatios) {
+                    grid.add(new Configuration(seats, availability, vip));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the number of simulated days per configuration.
+     * @param runsPerConfiguration Runs (positive)
+     * @throws IllegalArgumentException if not positive
+     */
+    public void setRunsPerConfiguration(int runsPerConfiguration) {
+        if (runsPerConfiguration <= 0) {
+            throw new IllegalArgumentException("Runs per configuration must be positive (received: " + runsPerConfiguration + ")");
+        }
+        this.runsPerConfiguration = runsPerConfiguration;
+    }
+
+    /**
+     * Sets the number of visitors per simulated day.
+     * @param visitorCount Visitors (positive)
+     * @throws IllegalArgumentException if not positive
+     */
+    public void setVisitorCount(int visitorCount) {
+        if (visitorCount <= 0) {
+            throw new IllegalArgumentException("Visitor count must be positive (received: " + visitorCount + ")");
+        }
+        this.visitorCount = visitorCount;
+    }
+
+    /**
+     * Sets the VIP:Regular boarding ratio of every simulated ride's priority lanes.
+     * @param vipWeight VIP guests boarded per Regular guest (positive; 1 = alternate lanes)
+     * @throws IllegalArgumentException if not positive
+     */
+    public void setVipWeight(int vipWeight) {
+        if (vipWeight <= 0) {
+            throw new IllegalArgumentException("VIP weight must be positive (received: " + vipWeight + ")");
+        }
+        this.vipWeight = vipWeight;
+    }
+
+    /**
+     * Runs the sweep on the common ForkJoinPool (all cores).
+     * @return List of Summary, one per configuration in grid order
+     */
+    public List<Summary> run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the sweep on the given pool.
+     *
+     * @param pool ForkJoinPool executing the runs
+     * @return List of Summary, one per configuration in grid order
+     * @throws IllegalStateException if no rides or no grid were configured
+     */
+    public List<Summary> run(ForkJoinPool pool) {
+        if (rides.isEmpty() || grid.isEmpty()) {
+            throw new IllegalStateException("Sweep needs at least one ride and a grid");
+        }
+        RunResult[] results = new RunResult[grid.size() * runsPerConfiguration];
+        pool.invoke(new SweepTask(results, 0, results.length));
+        List<Summary> summaries = new ArrayList<>(grid.size());
+        for (int c = 0; c < grid.size(); c++) {
+            List<RunResult> runs = new ArrayList<>(runsPerConfiguration);
+            for (int r = 0; r < runsPerConfiguration; r++) {
+                runs.add(results[c * runsPerConfiguration + r]);
+            }
+            summaries.add(new Summary(grid.get(c), runs));
+        }
+        return summaries;
+    }
+
+    /**
+     * Re-runs one simulated day exactly (e.g. an outlier found in a Summary).
+     *
+     * @param configuration Grid point of the run
+     * @param seed RunResult.getSeed() of the run
+     * @return SimulationReport of the replayed day
+     */
+    public SimulationReport replay(Configuration configuration, long seed) {
+        SplittableRandom staffing = new SplittableRandom(seed ^ 0x5DEECE66DL); // Independent of the simulator's stream
+        ParkSimulator simulator = new ParkSimulator(seed);
+        simulator.setVisitorCount(visitorCount);
+        simulator.setVipRatio(configuration.getVipRatio());
+        for (RideSpec spec : rides) {
+            boolean target = targetRideId == null || targetRideId.equals(spec.rideId);
+            Employee operator = staffing.nextDouble() < configuration.getOperatorAvailability() ? SIMULATED_OPERATOR : null;
+            Ride ride = new Ride(spec.rideId, spec.rideName, operator,
+                    target ? configuration.getMaxRidersPerCycle() : spec.maxRidersPerCycle,
+                    new PriorityLaneQueue(vipWeight, 1));
+            simulator.addRide(ride, spec.cycleIntervalMillis, spec.popularity);
+        }
+        return simulator.run();
+    }
+
+    /**
+     * Derives a run's seed from the base seed and its grid coordinates (SplitMix64 finalizer).
+     */
+    private long seedFor(int configurationIndex, int runIndex) {
+        long z = baseSeed + ((long) configurationIndex * runsPerConfiguration + runIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Reduces a simulated day to the sweep's headline metrics.
+     */
+    private static RunResult summarize(Configuration configuration, long seed, SimulationReport report) {
+        double weightedP90 = 0;
+        long riders = 0;
+        int unserved = 0;
+        for (SimulationReport.RideReport ride : report.getRides()) {
+            weightedP90 += (double) ride.getWaitP90Millis() * ride.getRiders();
+            riders += ride.getRiders();
+            unserved += ride.getUnserved();
+        }
+        return new RunResult(configuration, seed, report.getRidesTaken(), riders == 0 ? 0 : weightedP90 / riders, unserved);
+    }
+}
@@ -0,0 +1,305 @@
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer / single-consumer queue backed by a power-of-two ring buffer.
+ * <p>Design Choices:
+ * - offer(): producers claim a slot with one CAS on the tail counter, then publish it by
+ *   advancing the slot's sequence number (lock-free, never waits for the consumer)
+ * - poll()/peek(): called by exactly ONE consumer thread (e.g. the thread running runCycle)
+ * - remove(Object): clears the slot in place; poll() skips cleared slots lazily. It is a
+ *   consumer-side operation: callers on other threads must serialize it with poll()/drainTo()
+ *   (Ride runs removals and cycle drains under one lock)
+ * </p>
+ * <p>Iteration is weakly consistent: it never throws ConcurrentModificationException and
+ * may or may not reflect offers that race with it.</p>
+ *
+ * @param <E> element type (nulls are not permitted)
+ * @author HD Developer
+ * @version 1.0
+ */
+public class MpscRingBuffer<E> extends AbstractQueue<E> {
+    private final int capacity;                       // Slot count (power of two)
+    private final int mask;                           // capacity - 1 (fast modulo)
+    private final AtomicReferenceArray<E> buffer;     // Element slots
+    private final AtomicLongArray sequences;          // Per-slot publication sequence
+    private final AtomicLong tail = new AtomicLong(); // Next position to claim (producers)
+    private final AtomicLong cleared = new AtomicLong(); // Slots removed but not yet skipped by poll()
+    private volatile long head;                       // Next position to consume (consumer only)
+
+    /**
+     * Creates a ring buffer holding at least the requested number of elements.
+     * <p>The capacity is rounded up to the next power of two so slot lookup is a bit mask.</p>
+     *
+     * @param requestedCapacity Minimum capacity (1 to 2^30)
+     * @throws IllegalArgumentException if the capacity is out of range
+     */
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 1 || requestedCapacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30 (received: " + requestedCapacity + ")");
+        }
+        this.capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i); // Slot i is free for position i
+        }
+    }
+
+    /**
+     * Gets the fixed slot capacity of the ring.
+     * @return int capacity (power of two)
+     */
+    public int capacity() { return capacity; }
+
+    /**
+     * Appends an element without locking (safe for any number of producer threads).
+     *
+     * @param e Element to append (non-null)
+     * @return true if appended, false if the ring is full
+     * @throws NullPointerException if e is null
+     */
+    @Override
+    public boolean offer(E e) {
+        if (e == null) {
+            throw new NullPointerException("MpscRingBuffer does not accept null elements");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer.lazySet(index, e);
+                    sequences.set(index, position + 1); // Publish (release) to the consumer
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // Slot still holds an unconsumed element: ring is full
+            }
+            // Another producer claimed this position first; retry with the new tail
+        }
+    }
+
+    /**
+     * Appends a batch of elements with a single CAS on the tail (bulk gate ingest).
+     * <p>Claims as many contiguous slots as are free (up to count) in one step, then
+     * publishes them in order, so a 50k batch costs one contended operation instead of 50k.</p>
+     *
+     * @param elements Source array (entries in range must be non-null)
+     * @param from Index of the first element to append
+     * @param count Number of elements to append
+     * @return int number of elements appended (less than count if the ring fills up)
+     * @throws NullPointerException if an element in range is null
+     */
+    public int offerAll(E[] elements, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            if (elements[i] == null) {
+                throw new NullPointerException("MpscRingBuffer does not accept null elements");
+            }
+        }
+        while (count > 0) {
+            long position = tail.get();
+            int claim = (int) Math.min(count, capacity - (position - head));
+            if (claim <= 0) {
+                return 0; // Full
+            }
+            long last = position + claim - 1;
+            if (sequences.get((int) last & mask) != last) {
+                continue; // Consumer has not released the slots yet, or the tail moved: re-read
+            }
+            if (tail.compareAndSet(position, position + claim)) {
+                for (int i = 0; i < claim; i++) {
+                    int index = (int) (position + i) & mask;
+                    buffer.lazySet(index, elements[from + i]);
+                    sequences.set(index, position + i + 1);
+                }
+                return claim;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Removes and returns the head element (single consumer only).
+     * @return head element, or null if empty (or the next slot is not yet published)
+     */
+    @Override
+    public E poll() {
+        while (true) {
+            long position = head;
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                return null;
+            }
+            E element = buffer.getAndSet(index, null);
+            sequences.lazySet(index, position + capacity); // Hand the slot back to producers
+            head = position + 1;
+            if (element != null) {
+                return element;
+            }
+            cleared.decrementAndGet(); // Skipped a slot cleared by remove(Object)
+        }
+    }
+
+    /**
+     * Removes up to max head elements into dst in one pass (single consumer only).
+     * <p>The consumer's head is published once at the end instead of once per element, so
+     * draining a cycle's worth of riders costs one volatile write and no allocation.</p>
+     *
+     * @param dst Destination array
+     * @param from Index in dst of the first drained element
+     * @param max Maximum number of elements to drain
+     * @return int number of elements drained into dst[from..from+n)
+     */
+    public int drainTo(E[] dst, int from, int max) {
+        long position = head;
+        int drained = 0;
+        long skipped = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break; // Empty, or the next slot is not yet published
+            }
+            E element = buffer.getAndSet(index, null);
+            sequences.lazySet(index, position + capacity);
+            position++;
+            if (element == null) {
+                skipped++; // Slot cleared by remove(Object)
+            } else {
+                dst[from + drained++] = element;
+            }
+        }
+        head = position;
+        if (skipped > 0) {
+            cleared.addAndGet(-skipped);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns (without removing) the head element (single consumer only).
+     * @return head element, or null if empty
+     */
+    @Override
+    public E peek() {
+        while (true) {
+            long position = head;
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                return null;
+            }
+            E element = buffer.get(index);
+            if (element != null) {
+                return element;
+            }
+            // Cleared slot at the head: consume it so peek() stays O(1) amortised
+            sequences.lazySet(index, position + capacity);
+            head = position + 1;
+            cleared.decrementAndGet();
+        }
+    }
+
+    /**
+     * Removes the first element equal to o by clearing its slot in place.
+     * <p>O(n) scan from head to tail; no elements are shifted. Consumer side: must not
+     * overlap poll()/peek()/drainTo() on another thread (call it from the consumer thread or
+     * under the lock the consumer holds while draining).</p>
+     *
+     * @param o Element to remove
+     * @return true if an element was removed
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        long end = tail.get();
+        for (long position = head; position < end; position++) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                continue; // Claimed but not yet published
+            }
+            E element = buffer.get(index);
+            if (element != null && o.equals(element) && buffer.compareAndSet(index, element, null)) {
+                cleared.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of queued elements (exact when producers are quiescent).
+     * @return int element count
+     */
+    @Override
+    public int size() {
+        long size = tail.get() - head - cleared.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Returns a weakly consistent iterator from head to tail (used by printQueue).
+     * @return Iterator over queued elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private long position = head;
+            private final long end = tail.get();
+            private int nextIndex = -1;
+            private E nextElement = advance();
+            private int lastIndex = -1;
+            private E lastElement;
+
+            private E advance() {
+                while (position < end) {
+                    int index = (int) position & mask;
+                    long expected = position + 1;
+                    position++;
+                    if (sequences.get(index) == expected) {
+                        E element = buffer.get(index);
+                        if (element != null) {
+                            nextIndex = index;
+                            return element;
+                        }
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextElement != null;
+            }
+
+            @Override
+            public E next() {
+                if (nextElement == null) {
+                    throw new NoSuchElementException();
+                }
+                lastElement = nextElement;
+                lastIndex = nextIndex;
+                nextElement = advance();
+                return lastElement;
+            }
+
+            @Override
+            public void remove() {
+                if (lastElement == null) {
+                    throw new IllegalStateException();
+                }
+                if (buffer.compareAndSet(lastIndex, lastElement, null)) {
+                    cleared.incrementAndGet();
+                }
+                lastElement = null;
+            }
+        };
+    }
+}
@@ -0,0 +1,322 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Discrete-event simulator of a park day, driving real Ride objects on a virtual clock.
+ * <p>Design Choices:
+ * - Events (visitor arrives at a ride, ride dispatches) live in a PriorityQueue ordered by
+ *   simulated time; the VirtualClock jumps straight to the next event, so a 12-hour day
+ *   runs in seconds
+ * - Rides are ordinary Ride instances: queueing, dispatch and history use the production
+ *   code paths (dispatchCycle), with verbose logging turned off
+ * - Stochastic inputs come from one seeded SplittableRandom: the same seed and
+ *   configuration always reproduce the same day
+ * - Visitors enter the park as a Poisson process, pick rides by popularity weight, walk
+ *   between rides and leave after an exponentially distributed number of rides
+ * </p>
+ * <p>Single use and not thread-safe: run() may be called once per simulator.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class ParkSimulator {
+
+    private static final int ARRIVAL = 0;   // Visitor joins a ride queue
+    private static final int DISPATCH = 1;  // Ride runs a cycle
+
+    /**
+     * Scheduled simulation event (ties broken by creation order for determinism).
+     */
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long sequence;
+        final int type;
+        final Station station;
+        final Guest guest;
+
+        Event(long time, long sequence, int type, Station station, Guest guest) {
+            this.time = time;
+            this.sequence = sequence;
+            this.type = type;
+            this.station = station;
+            this.guest = guest;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Simulated visitor state.
+     */
+    private static final class Guest {
+        final Visitor visitor;
+        int ridesLeft;      // Rides still wanted before leaving the park
+        long queuedAt;      // Time the guest joined the current queue
+
+        Guest(Visitor visitor, int ridesLeft) {
+            this.visitor = visitor;
+            this.ridesLeft = ridesLeft;
+        }
+    }
+
+    /**
+     * A simulated ride and its statistics.
+     */
+    private static final class Station {
+        final Ride ride;
+        final long cycleIntervalMillis;
+        final double popularity;
+        int queued;             // Guests currently waiting
+        long[] waits = new long[64];
+        int riders;
+        int cycles;
+        int failedCycles;
+        long queueLengthSum;    // Sum of queue lengths sampled at dispatch
+        int samples;
+        int maxQueue;
+
+        Station(Ride ride, long cycleIntervalMillis, double popularity) {
+            this.ride = ride;
+            this.cycleIntervalMillis = cycleIntervalMillis;
+            this.popularity = popularity;
+        }
+
+        void recordWait(long wait) {
+            if (riders == waits.length) {
+                waits = Arrays.copyOf(waits, riders * 2);
+            }
+            waits[riders++] = wait;
+        }
+    }
+
+    private final long seed;
+    private final List<Station> stations = new ArrayList<>();
+    private int visitorCount = 50_000;                  // Visitors entering the park
+    private long dayLengthMillis = 12 * 3_600_000L;     // Opening hours (12 h)
+    private double arrivalWindowFraction = 0.5;         // Share of the day during which visitors arrive
+    private double meanRidesPerVisitor = 6;             // Mean rides before leaving
+    private long meanWalkMillis = 5 * 60_000L;          // Mean walk between rides (5 min)
+    private double vipRatio = 0.1;                      // Share of VIP visitors
+    private boolean finished;
+
+    /**
+     * Creates a simulator with the default day (50k visitors, 12 hours).
+     * @param seed Random seed (same seed and configuration = same results)
+     */
+    public ParkSimulator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Adds a ride to the simulated park.
+     * <p>The simulator takes over the ride's clock and turns its logging off.</p>
+     *
+     * @param ride Ride to simulate (its operator decides whether cycles can run)
+     * @param cycleIntervalMillis Time between dispatches (positive)
+     * @param popularity Relative share of visitors choosing this ride (positive)
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public void addRide(Ride ride, long cycleIntervalMillis, double popularity) {
+        if (ride == null || cycleIntervalMillis <= 0 || !(popularity > 0)) {
+            throw new IllegalArgumentException("Ride must be non-null with a positive interval and popularity");
+        }
+        stations.add(new Station(ride, cycleIntervalMillis, popularity));
+    }
+
+    // ------------------------------ Configuration ------------------------------
+    public void setVisitorCount(int visitorCount) { this.visitorCount = requirePositive(visitorCount, "Visitor count"); }
+    public void setDayLengthMillis(long dayLengthMillis) { this.dayLengthMillis = requirePositive(dayLengthMillis, "Day length"); }
+    public void setMeanWalkMillis(long meanWalkMillis) { this.meanWalkMillis = requirePositive(meanWalkMillis, "Walk time"); }
+
+    /**
+     * Sets the mean number of rides a visitor takes before leaving.
+     * @param meanRidesPerVisitor Mean rides (at least 1)
+     * @throws IllegalArgumentException if below 1
+     */
+    public void setMeanRidesPerVisitor(double meanRidesPerVisitor) {
+        if (!(meanRidesPerVisitor >= 1)) {
+            throw new IllegalArgumentException("Mean rides per visitor must be at least 1 (received: " + meanRidesPerVisitor + ")");
+        }
+        this.meanRidesPerVisitor = meanRidesPerVisitor;
+    }
+
+    /**
+     * Sets the share of the day during which visitors enter the park.
+     * @param arrivalWindowFraction Fraction in (0, 1]
+     * @throws IllegalArgumentException if out of range
+     */
+    public void setArrivalWindowFraction(double arrivalWindowFraction) {
+        if (!(arrivalWindowFraction > 0 && arrivalWindowFraction <= 1)) {
+            throw new IllegalArgumentException("Arrival window must be in (0, 1] (received: " + arrivalWindowFraction + ")");
+        }
+        this.arrivalWindowFraction = arrivalWindowFraction;
+    }
+
+    /**
+     * Sets the share of visitors with VIP membership.
+     * @param vipRatio Fraction in [0, 1]
+     * @throws IllegalArgumentException if out of range
+     */
+    public void setVipRatio(double vipRatio) {
+        if (!(vipRatio >= 0 && vipRatio <= 1)) {
+            throw new IllegalArgumentException("VIP ratio must be in [0, 1] (received: " + vipRatio + ")");
+        }
+        this.vipRatio = vipRatio;
+    }
+
+    /**
+     * Simulates one park day.
+     *
+     * @return SimulationReport with per-ride throughput, queue lengths and wait percentiles
+     * @throws IllegalStateException if no rides were added or the simulator already ran
+     */
+    public SimulationReport run() {
+        if (stations.isEmpty()) {
+            throw new IllegalStateException("No rides to simulate");
+        }
+        if (finished) {
+            throw new IllegalStateException("Simulator already ran (create a new one per day)");
+        }
+        finished = true;
+        long startNanos = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        VirtualClock clock = new VirtualClock(0);
+        PriorityQueue<Event> events = new PriorityQueue<>();
+        Map<Visitor, Guest> guests = new HashMap<>(visitorCount * 2);
+        long[] sequence = {0};
+
+        // Cumulative popularity for weighted ride choice
+        double[] cumulative = new double[stations.size()];
+        double total = 0;
+        for (int i = 0; i < stations.size(); i++) {
+            Station station = stations.get(i);
+            total += station.popularity;
+            cumulative[i] = total;
+            station.ride.setClock(clock);
+            station.ride.setVerbose(false);
+            events.add(new Event(station.cycleIntervalMillis, sequence[0]++, DISPATCH, station, null));
+        }
+
+        // Park entries: Poisson process over the arrival window
+        double meanGap = dayLengthMillis * arrivalWindowFraction / visitorCount;
+        double arrivalTime = 0;
+        for (int i = 0; i < visitorCount; i++) {
+            arrivalTime += exponential(random, meanGap);
+            String membership = random.nextDouble() < vipRatio ? "VIP" : "Regular";
+            Visitor visitor = new Visitor("SIM" + i, "Guest" + i, 5 + random.nextInt(66), "G" + i, membership);
+            int rides = 1 + (int) exponential(random, meanRidesPerVisitor - 1);
+            Guest guest = new Guest(visitor, rides);
+            guests.put(visitor, guest);
+            events.add(new Event((long) arrivalTime, sequence[0]++, ARRIVAL, pickStation(random, cumulative, total), guest));
+        }
+
+        long processed = 0;
+        long ridesTaken = 0;
+        Event event;
+        while ((event = events.poll()) != null && event.time < dayLengthMillis) {
+            clock.setMillis(event.time);
+            processed++;
+            Station station = event.station;
+            if (event.type == ARRIVAL) {
+                Guest guest = event.guest;
+                if (station.ride.tryAddToQueue(guest.visitor).isAccepted()) {
+                    guest.queuedAt = event.time;
+                    station.queued++;
+                } else if (--guest.ridesLeft > 0) { // Balk: line full, try another ride
+                    long next = event.time + (long) exponential(random, meanWalkMillis);
+                    events.add(new Event(next, sequence[0]++, ARRIVAL, pickStation(random, cumulative, total), guest));
+                }
+                continue;
+            }
+
+            // Dispatch: sample the line, run the real cycle, route riders to their next ride
+            station.queueLengthSum += station.queued;
+            station.samples++;
+            station.maxQueue = Math.max(station.maxQueue, station.queued);
+            CycleResult result = station.ride.dispatchCycle();
+            if (result.isSuccess()) {
+                station.cycles++;
+                for (Visitor rider : result.getRiders()) {
+                    Guest guest = guests.get(rider);
+                    if (guest == null) {
+                        continue; // Queued by the caller before the simulation started
+                    }
+                    station.recordWait(event.time - guest.queuedAt);
+                    station.queued--;
+                    ridesTaken++;
+                    if (--guest.ridesLeft > 0) {
+                        long next = event.time + station.cycleIntervalMillis + (long) exponential(random, meanWalkMillis);
+                        events.add(new Event(next, sequence[0]++, ARRIVAL, pickStation(random, cumulative, total), guest));
+                    }
+                }
+            } else {
+                station.failedCycles++;
+            }
+            events.add(new Event(event.time + station.cycleIntervalMillis, sequence[0]++, DISPATCH, station, null));
+        }
+
+        List<SimulationReport.RideReport> reports = new ArrayList<>(stations.size());
+        double hours = dayLengthMillis / 3_600_000.0;
+        for (Station station : stations) {
+            long[] waits = Arrays.copyOf(station.waits, station.riders);
+            Arrays.sort(waits);
+            reports.add(new SimulationReport.RideReport(
+                    station.ride.getRideId(), station.ride.getRideName(), station.riders, station.cycles,
+                    station.failedCycles, station.riders / hours,
+                    station.samples == 0 ? 0 : (double) station.queueLengthSum / station.samples, station.maxQueue,
+                    percentile(waits, 0.50), percentile(waits, 0.90), percentile(waits, 0.99), station.queued));
+        }
+        return new SimulationReport(reports, visitorCount, ridesTaken, dayLengthMillis, processed, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Picks a ride with probability proportional to its popularity (binary search).
+     */
+    private Station pickStation(SplittableRandom random, double[] cumulative, double total) {
+        double target = random.nextDouble() * total;
+        int index = Arrays.binarySearch(cumulative, target);
+        index = index >= 0 ? index + 1 : -index - 1;
+        return stations.get(Math.min(index, cumulative.length - 1));
+    }
+
+    /**
+     * Draws an exponentially distributed value with the given mean (0 if the mean is 0).
+     */
+    private static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values (0 when empty).
+     */
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static int requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive (received: " + value + ")");
+        }
+        return value;
+    }
+
+    private static long requirePositive(long value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive (received: " + value + ")");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of visitors who must ride together (one queue entry, boarded into one vehicle).
+ * <p>Design Rationale: families and friends queue as a unit, so the loader packs whole
+ * parties into seats instead of splitting them across cycles or cars.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public final class Party {
+    private final String partyId;           // Booking/group reference
+    private final List<Visitor> members;    // Party members (non-empty, no nulls)
+
+    /**
+     * Creates a party.
+     *
+     * @param partyId Group reference (for logs)
+     * @param members Visitors riding together (non-empty, no null entries)
+     * @throws IllegalArgumentException if members is null, empty or contains null
+     */
+    public Party(String partyId, List<Visitor> members) {
+        List<Visitor> copy = members == null ? null : new ArrayList<>(members); // contains(null) throws on List.of
+        if (copy == null || copy.isEmpty() || copy.contains(null)) {
+            throw new IllegalArgumentException("Party " + partyId + " needs at least one non-null member");
+        }
+        this.partyId = partyId;
+        this.members = Collections.unmodifiableList(copy);
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public String getPartyId() { return partyId; }
+    public List<Visitor> getMembers() { return members; }
+    public int size() { return members.size(); }
+
+    @Override
+    public String toString() {
+        return String.format("Party %s (%d visitors)", partyId, members.size());
+    }
+}
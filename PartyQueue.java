@@ -0,0 +1,107 @@
+import java.util.ArrayDeque;
+
+/**
+ * Party line plus single-rider line, packed into seats one vehicle at a time.
+ * <p>Design Choices:
+ * - Only the first `window` parties are packing candidates: each vehicle is filled first-fit
+ *   over the window in arrival order, so a cycle costs O(window) however long the line is
+ * - The head party is always tried first on every vehicle, so a large party is only passed
+ *   over while it does not fit the seats still free
+ * - Gaps left after packing are backfilled from the single-rider line (FIFO)
+ * </p>
+ * <p>Not thread-safe: call from the thread that runs the ride's cycles.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class PartyQueue {
+    private final ArrayDeque<Party> line = new ArrayDeque<>();      // Parties behind the window
+    private final ArrayDeque<Visitor> singleRiders = new ArrayDeque<>(); // Single-rider line
+    private final Party[] window;           // Packing candidates, in arrival order
+    private int windowSize;                 // Parties in window[0..windowSize)
+    private int waitingVisitors;            // Visitors across both lines
+    private long partiesBoarded;            // Parties seated so far
+    private long singleRidersBoarded;       // Single riders seated so far
+
+    /**
+     * Creates a party queue.
+     * @param window Number of parties considered per vehicle (positive)
+     * @throws IllegalArgumentException if window is not positive
+     */
+    public PartyQueue(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Packing window must be positive (received: " + window + ")");
+        }
+        this.window = new Party[window];
+    }
+
+    /**
+     * Adds a party to the back of the party line.
+     * @param party Party to queue (non-null)
+     */
+    public void offerParty(Party party) {
+        if (windowSize < window.length && line.isEmpty()) {
+            window[windowSize++] = party;
+        } else {
+            line.offer(party);
+        }
+        waitingVisitors += party.size();
+    }
+
+    /**
+     * Adds a visitor to the single-rider line.
+     * @param visitor Visitor willing to ride with strangers (non-null)
+     */
+    public void offerSingleRider(Visitor visitor) {
+        singleRiders.offer(visitor);
+        waitingVisitors++;
+    }
+
+    /**
+     * Fills one vehicle: whole parties first-fit from the window, then single riders.
+     *
+     * @param dst Destination buffer
+     * @param from Index in dst of the vehicle's first free seat
+     * @param seats Free seats in the vehicle
+     * @return int number of visitors seated (dst[from..from+n))
+     */
+    public int fill(Visitor[] dst, int from, int seats) {
+        int filled = 0;
+        int kept = 0;
+        for (int i = 0; i < windowSize; i++) {
+            Party party = window[i];
+            if (party.size() <= seats - filled) {
+                for (Visitor member : party.getMembers()) {
+                    dst[from + filled++] = member;
+                }
+                partiesBoarded++;
+                waitingVisitors -= party.size();
+            } else {
+                window[kept++] = party; // Stays in line, keeping arrival order
+            }
+        }
+        for (int i = kept; i < windowSize; i++) {
+            window[i] = null;
+        }
+        windowSize = kept;
+        while (windowSize < window.length && !line.isEmpty()) {
+            window[windowSize++] = line.poll();
+        }
+        Visitor single;
+        while (filled < seats && (single = singleRiders.poll()) != null) {
+            dst[from + filled++] = single; // Backfill the gaps
+            singleRidersBoarded++;
+            waitingVisitors--;
+        }
+        return filled;
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public int getWaitingCount() { return waitingVisitors; }
+    public int getPartyCount() { return windowSize + line.size(); }
+    public int getSingleRiderCount() { return singleRiders.size(); }
+    public boolean isEmpty() { return waitingVisitors == 0; }
+    public int getWindow() { return window.length; }
+    public long getPartiesBoarded() { return partiesBoarded; }
+    public long getSingleRidersBoarded() { return singleRidersBoarded; }
+}
@@ -0,0 +1,238 @@
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Tiered waiting queue with one FIFO lane per membership type (e.g. "VIP", "Regular").
+ * <p>Dispatch Rules:
+ * - Lanes are served by weighted round robin: with weights VIP=3, Regular=1, runCycle
+ *   boards three VIP guests for every Regular guest while both lanes have visitors
+ * - An empty lane gives up its turn immediately (no seats are wasted)
+ * - Unknown membership types get their own lowest-priority lane with weight 1
+ * </p>
+ * <p>Design Rationale: poll() touches at most one deque per lane (O(1) for a fixed number
+ * of membership types), so dispatch cost does not grow with the line, unlike sorting the
+ * whole queue with RideComparator (DispatchBenchmark measures both up to 100k waiting).
+ * Not thread-safe.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class PriorityLaneQueue extends AbstractQueue<Visitor> {
+
+    /**
+     * One membership lane and its dispatch weight.
+     */
+    private static final class Lane {
+        final String membershipType;
+        final int weight;
+        final ArrayDeque<Visitor> visitors = new ArrayDeque<>();
+
+        Lane(String membershipType, int weight) {
+            this.membershipType = membershipType;
+            this.weight = weight;
+        }
+    }
+
+    private final List<Lane> lanes = new ArrayList<>();            // Priority order (highest first)
+    private final Map<String, Lane> lanesByType = new HashMap<>(); // membershipType -> lane
+    private int currentLane;                                       // Lane whose turn it is
+    private int creditsLeft;                                       // Boardings left in the current turn
+    private int size;                                              // Visitors across all lanes
+
+    /**
+     * Creates the standard two-lane queue with a VIP:Regular boarding ratio.
+     *
+     * @param vipWeight VIP guests boarded per turn (positive)
+     * @param regularWeight Regular guests boarded per turn (positive)
+     * @throws IllegalArgumentException if a weight is not positive
+     */
+    public PriorityLaneQueue(int vipWeight, int regularWeight) {
+        this(twoLaneWeights(vipWeight, regularWeight));
+    }
+
+    /**
+     * Creates a queue with custom lanes.
+     *
+     * @param laneWeights membershipType -> weight, iterated in priority order (e.g. LinkedHashMap)
+     * @throws IllegalArgumentException if the map is empty or a weight is not positive
+     */
+    public PriorityLaneQueue(Map<String, Integer> laneWeights) {
+        if (laneWeights == null || laneWeights.isEmpty()) {
+            throw new IllegalArgumentException("At least one lane weight is required");
+        }
+        for (Map.Entry<String, Integer> entry : laneWeights.entrySet()) {
+            addLane(entry.getKey(), entry.getValue());
+        }
+        creditsLeft = lanes.get(0).weight;
+    }
+
+    /**
+     * Gets the number of visitors waiting in one lane.
+     * @param membershipType Lane key (e.g. "VIP")
+     * @return int lane length (0 for unknown lanes)
+     */
+    public int laneSize(String membershipType) {
+        Lane lane = lanesByType.get(membershipType);
+        return lane == null ? 0 : lane.visitors.size();
+    }
+
+    /**
+     * Appends a visitor to the back of its membership lane (O(1)).
+     *
+     * @param visitor Visitor to queue (non-null)
+     * @return true (lanes are unbounded)
+     * @throws NullPointerException if visitor is null
+     */
+    @Override
+    public boolean offer(Visitor visitor) {
+        if (visitor == null) {
+            throw new NullPointerException("PriorityLaneQueue does not accept null visitors");
+        }
+        Lane lane = lanesByType.get(visitor.getMembershipType());
+        if (lane == null) {
+            lane = addLane(visitor.getMembershipType(), 1);
+        }
+        lane.visitors.offer(visitor);
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the next visitor according to the weighted lane rotation (O(lanes)).
+     * @return next visitor to board, or null if every lane is empty
+     */
+    @Override
+    public Visitor poll() {
+        Lane lane = nextLane();
+        if (lane == null) {
+            return null;
+        }
+        creditsLeft--;
+        size--;
+        return lane.visitors.poll();
+    }
+
+    /**
+     * Returns (without removing) the visitor poll() would board next.
+     * @return next visitor, or null if every lane is empty
+     */
+    @Override
+    public Visitor peek() {
+        Lane lane = nextLane();
+        return lane == null ? null : lane.visitors.peek();
+    }
+
+    /**
+     * Removes a visitor from its membership lane (O(lane length)).
+     * @param o Visitor to remove
+     * @return true if removed
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Visitor)) {
+            return false;
+        }
+        Lane lane = lanesByType.get(((Visitor) o).getMembershipType());
+        if (lane != null && lane.visitors.remove(o)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Lane lane : lanes) {
+            lane.visitors.clear();
+        }
+        size = 0;
+    }
+
+    /**
+     * Iterates lane by lane in priority order (VIP lane first, then Regular, ...).
+     * <p>Note: this is the lane layout, not the interleaved boarding order of poll().</p>
+     *
+     * @return Iterator over all waiting visitors
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        return new Iterator<Visitor>() {
+            private int laneIndex;
+            private Iterator<Visitor> current = lanes.get(0).visitors.iterator();
+            private Iterator<Visitor> last;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && laneIndex < lanes.size() - 1) {
+                    current = lanes.get(++laneIndex).visitors.iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Visitor next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = current;
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                last.remove();
+                last = null;
+                size--;
+            }
+        };
+    }
+
+    /**
+     * Finds the lane whose turn it is, rotating past exhausted or empty lanes.
+     */
+    private Lane nextLane() {
+        if (size == 0) {
+            return null;
+        }
+        while (true) {
+            Lane lane = lanes.get(currentLane);
+            if (creditsLeft > 0 && !lane.visitors.isEmpty()) {
+                return lane;
+            }
+            currentLane = (currentLane + 1) % lanes.size();
+            creditsLeft = lanes.get(currentLane).weight;
+        }
+    }
+
+    private Lane addLane(String membershipType, Integer weight) {
+        if (weight == null || weight <= 0) {
+            throw new IllegalArgumentException("Lane weight must be positive (" + membershipType + ": " + weight + ")");
+        }
+        Lane lane = new Lane(membershipType, weight);
+        lanes.add(lane);
+        lanesByType.put(membershipType, lane);
+        return lane;
+    }
+
+    private static Map<String, Integer> twoLaneWeights(int vipWeight, int regularWeight) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("VIP", vipWeight);
+        weights.put("Regular", regularWeight);
+        return weights;
+    }
+}
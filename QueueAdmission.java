@@ -0,0 +1,75 @@
+/**
+ * Result of a non-blocking queue admission attempt (Ride.tryAddToQueue).
+ * <p>Design Rationale: gate systems need to know immediately whether a guest was queued
+ * and roughly how long they will wait, so they can redirect guests when a line is full
+ * instead of the ride holding an unbounded queue in memory.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public final class QueueAdmission {
+
+    /**
+     * Outcome of the admission attempt.
+     */
+    public enum Status {
+        ACCEPTED,   // Visitor was added to the waiting queue
+        REJECTED    // Visitor was not added (see getReason())
+    }
+
+    /** Value of getEstimatedWaitMillis() when no cycle rate has been observed yet. */
+    public static final long UNKNOWN_WAIT = WaitTimeEstimator.UNKNOWN_WAIT;
+
+    private final Status status;
+    private final String reason;            // Rejection reason (null when accepted)
+    private final int position;             // 1-based queue position (accepted), else queue length
+    private final long estimatedWaitMillis; // Estimated wait, or UNKNOWN_WAIT
+
+    private QueueAdmission(Status status, String reason, int position, long estimatedWaitMillis) {
+        this.status = status;
+        this.reason = reason;
+        this.position = position;
+        this.estimatedWaitMillis = estimatedWaitMillis;
+    }
+
+    /**
+     * Creates an accepted result.
+     * @param position 1-based position the visitor joined at
+     * @param estimatedWaitMillis Estimated wait for that position (or UNKNOWN_WAIT)
+     * @return QueueAdmission with status ACCEPTED
+     */
+    public static QueueAdmission accepted(int position, long estimatedWaitMillis) {
+        return new QueueAdmission(Status.ACCEPTED, null, position, estimatedWaitMillis);
+    }
+
+    /**
+     * Creates a rejected result.
+     * @param reason Human-readable rejection reason
+     * @param queueLength Current queue length (for redirect decisions)
+     * @param estimatedWaitMillis Estimated wait at the back of the line (or UNKNOWN_WAIT)
+     * @return QueueAdmission with status REJECTED
+     */
+    public static QueueAdmission rejected(String reason, int queueLength, long estimatedWaitMillis) {
+        return new QueueAdmission(Status.REJECTED, reason, queueLength, estimatedWaitMillis);
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public Status getStatus() { return status; }
+    public boolean isAccepted() { return status == Status.ACCEPTED; }
+    public String getReason() { return reason; }
+    public int getPosition() { return position; }
+    public long getEstimatedWaitMillis() { return estimatedWaitMillis; }
+
+    /**
+     * Returns a human-readable summary for gate displays and logs.
+     * @return Formatted admission summary
+     */
+    @Override
+    public String toString() {
+        String wait = estimatedWaitMillis == UNKNOWN_WAIT ? "unknown" : (estimatedWaitMillis / 1000) + "s";
+        if (status == Status.ACCEPTED) {
+            return String.format("ACCEPTED | Position: %d | Est. wait: %s", position, wait);
+        }
+        return String.format("REJECTED | Reason: %s | Queue length: %d | Est. wait: %s", reason, position, wait);
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable point-in-time view of a ride's waiting queue (displays, exports, analytics).
+ * <p>Design Rationale: the snapshot only holds references to chunk arrays plus the
+ * [start, end) range that was live in each, so ChunkedVisitorQueue can produce one in
+ * O(chunks) and readers iterate it without any lock while the queue keeps changing.
+ * The queue never writes inside a range that a snapshot may hold.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public final class QueueSnapshot implements Iterable<Visitor> {
+    private final Visitor[][] chunks; // Shared chunk arrays (never written in captured ranges)
+    private final int[] starts;       // First captured index per chunk
+    private final int[] ends;         // End (exclusive) of captured range per chunk
+    private final int size;           // Total visitors captured
+
+    /**
+     * Creates a snapshot over captured chunk ranges (used by ChunkedVisitorQueue).
+     * @param chunks Chunk arrays
+     * @param starts First index per chunk
+     * @param ends End index (exclusive) per chunk
+     * @param size Total visitors across all ranges
+     */
+    QueueSnapshot(Visitor[][] chunks, int[] starts, int[] ends, int size) {
+        this.chunks = chunks;
+        this.starts = starts;
+        this.ends = ends;
+        this.size = size;
+    }
+
+    /**
+     * Copies any collection into a single-chunk snapshot (O(n) fallback for other queues).
+     * @param visitors Collection to copy (iterated once)
+     * @return QueueSnapshot of the copied visitors
+     */
+    public static QueueSnapshot copyOf(Collection<Visitor> visitors) {
+        Visitor[] copy = visitors.toArray(new Visitor[0]);
+        return new QueueSnapshot(new Visitor[][] { copy }, new int[] { 0 }, new int[] { copy.length }, copy.length);
+    }
+
+    /**
+     * Gets the number of visitors captured.
+     * @return int visitor count
+     */
+    public int size() { return size; }
+
+    /**
+     * Checks whether the queue was empty when captured.
+     * @return true if no visitors were captured
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Iterates visitors in queue order (read-only, lock-free).
+     * @return Iterator over captured visitors
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        return new Iterator<Visitor>() {
+            private int chunk;
+            private int index = chunks.length == 0 ? 0 : starts[0];
+
+            @Override
+            public boolean hasNext() {
+                while (chunk < chunks.length && index >= ends[chunk]) {
+                    chunk++;
+                    if (chunk < chunks.length) {
+                        index = starts[chunk];
+                    }
+                }
+                return chunk < chunks.length;
+            }
+
+            @Override
+            public Visitor next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunks[chunk][index++];
+            }
+        };
+    }
+}
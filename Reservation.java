@@ -0,0 +1,48 @@
+/**
+ * Virtual-queue reservation: a visitor's return-time window for one ride.
+ * <p>The visitor may board any cycle between getReturnAtMillis() (inclusive) and
+ * getExpiresAtMillis() (exclusive); afterwards the reservation lapses as a no-show.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class Reservation {
+    private final Visitor visitor;        // Guest holding the reservation
+    private final long returnAtMillis;    // Window start (eligible for runCycle)
+    private final long expiresAtMillis;   // Window end (no-show after this)
+    private boolean cancelled;            // Cancelled by the guest before boarding
+    int remainingRounds;                  // Timing-wheel revolutions left (VirtualQueue only)
+
+    /**
+     * Creates a reservation for a return window.
+     * @param visitor Guest holding the reservation (non-null)
+     * @param returnAtMillis Window start in milliseconds
+     * @param expiresAtMillis Window end in milliseconds (after returnAtMillis)
+     */
+    public Reservation(Visitor visitor, long returnAtMillis, long expiresAtMillis) {
+        this.visitor = visitor;
+        this.returnAtMillis = returnAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public Visitor getVisitor() { return visitor; }
+    public long getReturnAtMillis() { return returnAtMillis; }
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+    public boolean isCancelled() { return cancelled; }
+
+    /**
+     * Cancels the reservation; the virtual queue skips it lazily (O(1)).
+     */
+    public void cancel() { this.cancelled = true; }
+
+    /**
+     * Returns a human-readable summary of the reservation.
+     * @return Formatted string with visitor name and window
+     */
+    @Override
+    public String toString() {
+        return String.format("Reservation[%s | Return: %tT - %tT%s]",
+                visitor.getName(), returnAtMillis, expiresAtMillis, cancelled ? " | CANCELLED" : "");
+    }
+}
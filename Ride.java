@@ -1,11 +1,30 @@
+import java.time.Clock;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Core Ride class implementing RideInterface (manages queue, history, and operations).
  * <p>Key Design Choices:
- * - Queue: LinkedList (optimal for FIFO operations with O(1) add/remove)
- * - History: LinkedList (supports efficient iteration and sorting)
+ * - Queue: LinkedList by default (optimal for FIFO operations with O(1) add/remove);
+ *   any Queue implementation can be supplied, e.g. MpscRingBuffer for lock-free gates
+ *   IndexedVisitorQueue for O(1) removeFromQueue, PriorityLaneQueue for VIP lanes,
+ *   ChunkedVisitorQueue for O(chunks) queue snapshots, or TombstoneVisitorQueue for
+ *   mass abandonment (lazy deletion)
+ * - History: columnar HistoryStore (primitive columns, ~21 bytes per ride taken);
+ *   getRideHistory() materializes a LinkedList copy for list-based callers; sortHistory()
+ *   switches on a sorted index maintained per append (unsortHistory() drops it) instead
+ *   of re-sorting the entries
  * - Cycle Logic: Limits riders per cycle to maxRidersPerCycle for safety
+ * - Vehicles: optional multi-car mode (setVehicleCapacities) seats each cycle's riders
+ *   across several cars loaded together
+ * - Parties: optional party loading (enablePartyLoading) packs whole groups into each car
+ *   and backfills empty seats from a single-rider line
+ * - Events: state changes are published to an optional RideEventBus (setEventBus) and
+ *   delivered to listeners on the bus thread, off the queue/cycle hot path (events from
+ *   different threads are ordered best-effort, see RideEventBus)
  * </p>
  * 
  * @author HD Developer
@@ -16,9 +35,30 @@ public class Ride implements RideInterface {
     private String rideName;                // Ride name (e.g., "Thunderbolt")
     private Employee operator;              // Assigned operator (required for operation)
     private Queue<Visitor> waitingQueue;    // FIFO queue for waiting visitors (Part3)
-    private LinkedList<Visitor> rideHistory;// Historical riders (Part4A)
+    private final HistoryStore rideHistory; // Historical riders, columnar (Part4A)
+    private boolean printSorted;            // printHistory() lists the sorted view (sortHistory until unsortHistory)
     private int maxRidersPerCycle;          // Max riders per cycle (safety constraint)
     private int cycleCount;                 // Number of cycles completed
+    private boolean verbose = true;         // Per-visitor and per-cycle console logging (disable for high-volume gates)
+    private int queueCapacity = Integer.MAX_VALUE; // Max waiting visitors (backpressure limit)
+    private Clock clock = Clock.systemUTC(); // Time source for dispatch timestamps (replaceable for simulation)
+    private final WaitTimeEstimator waitEstimator = new WaitTimeEstimator(); // EWMA of dispatch intervals
+    private VirtualQueue virtualQueue;      // Return-time reservations (null = standby line only)
+    private Set<String> queuedVisitorIds;   // visitorIds waiting in the standby line (null = dedupe off)
+    private RideJournal journal;            // Write-ahead log (null = in-memory only)
+    private final Object consumerLock = new Object(); // Cycles and removals take turns as the queue's single consumer
+    private Visitor[] cycleRiders;          // Reused per cycle: riders drained from the queues
+    private boolean[] cycleFromStandby;     // Reused per cycle: rider came from the standby line
+    private int[] vehicleCapacities;        // Seats per car, in boarding order (null = one vehicle)
+    private int[] cycleVehicleLoads;        // Reused per cycle: riders assigned to each car
+    private int cycleLoaded;                // Latest cycle: riders in cycleRiders[0..cycleLoaded)
+    private int cycleVehicles;              // Latest cycle: cars in cycleVehicleLoads[0..cycleVehicles)
+    private long cycleMillis;               // Latest cycle: ride clock time of the attempt
+    private long cycleNanos;                // Latest cycle: time spent in the attempt
+    private String cycleFailure;            // Latest cycle: failure reason (null on success)
+    private PartyQueue partyQueue;          // Party + single-rider lines (null = party loading off)
+    private volatile RideEventBus eventBus; // Event subscribers' pipeline (null = no events)
+    private CompletableFuture<CycleResult> lastAsyncCycle = CompletableFuture.completedFuture(null); // Tail of async cycle chain
 
     /**
      * Parameterized constructor for Ride (initializes collections).
@@ -30,13 +70,35 @@ public class Ride implements RideInterface {
      * @param maxRidersPerCycle Max riders per cycle (positive integer)
      */
     public Ride(String rideId, String rideName, Employee operator, int maxRidersPerCycle) {
+        this(rideId, rideName, operator, maxRidersPerCycle, new LinkedList<>()); // LinkedList for Queue (FIFO)
+    }
+
+    /**
+     * Constructor with a caller-supplied waiting queue implementation.
+     * <p>Concurrent Mode: pass an MpscRingBuffer so any number of gate threads can call
+     * addToQueue without an external lock, while a single thread calls runCycle.</p>
+     *
+     * @param rideId Unique ride ID
+     * @param rideName Descriptive ride name
+     * @param operator Assigned employee (can be null initially)
+     * @param maxRidersPerCycle Max riders per cycle (positive integer)
+     * @param waitingQueue Empty queue used for waiting visitors (non-null)
+     * @throws IllegalArgumentException if waitingQueue is null
+     */
+    public Ride(String rideId, String rideName, Employee operator, int maxRidersPerCycle, Queue<Visitor> waitingQueue) {
+        if (waitingQueue == null) {
+            throw new IllegalArgumentException("Waiting queue must not be null (" + rideName + ")");
+        }
         this.rideId = rideId;
         this.rideName = rideName;
         this.operator = operator;
         this.maxRidersPerCycle = maxRidersPerCycle;
         this.cycleCount = 0;
-        this.waitingQueue = new LinkedList<>(); // LinkedList for Queue (FIFO)
-        this.rideHistory = new LinkedList<>();  // LinkedList for history (sortable)
+        this.waitingQueue = waitingQueue;
+        this.rideHistory = new HistoryStore(); // Columnar history with its own visitor registry
+        this.cycleRiders = new Visitor[Math.max(0, maxRidersPerCycle)];
+        this.cycleFromStandby = new boolean[cycleRiders.length];
+        this.cycleVehicleLoads = new int[1];
     }
 
     // ------------------------------ Getters & Setters ------------------------------
@@ -46,12 +108,189 @@ public class Ride implements RideInterface {
     public void setOperator(Employee operator) { this.operator = operator; }
     public int getMaxRidersPerCycle() { return maxRidersPerCycle; }
     public int getCycleCount() { return cycleCount; }
-    public LinkedList<Visitor> getRideHistory() { return rideHistory; }
+    public HistoryStore getHistoryStore() { return rideHistory; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public Clock getClock() { return clock; }
+    public WaitTimeEstimator getWaitEstimator() { return waitEstimator; }
+    public long getLastDispatchMillis() { return waitEstimator.getLastDispatchMillis(); }
+    public VirtualQueue getVirtualQueue() { return virtualQueue; }
+    public boolean isDeduplicatingQueue() { return queuedVisitorIds != null; }
+    public RideJournal getJournal() { return journal; }
+
+    /**
+     * Attaches (or detaches, with null) the write-ahead log for durable mode.
+     * <p>Normally called by RideJournal.openAndRecover after replaying the log.</p>
+     *
+     * @param journal Journal to append queue/history mutations to
+     */
+    public void setJournal(RideJournal journal) { this.journal = journal; }
+    public boolean isMultiVehicle() { return vehicleCapacities != null; }
+    public PartyQueue getPartyQueue() { return partyQueue; }
+    public RideEventBus getEventBus() { return eventBus; }
+    public void setEventBus(RideEventBus eventBus) { this.eventBus = eventBus; }
+    public boolean isVerbose() { return verbose; }
+
+    /**
+     * Gets the ride history as a list (materialized copy, oldest first).
+     * <p>Changes to the returned list do not affect the ride; use addToHistory or
+     * addAllToHistory to record rides.</p>
+     *
+     * @return new LinkedList of visitors who rode
+     */
+    public LinkedList<Visitor> getRideHistory() {
+        return rideHistory.toLinkedList();
+    }
+
+    /**
+     * Gets the ride history in RideComparator order (materialized copy).
+     * <p>Reads the maintained index after sortHistory(); otherwise sorts once for this call
+     * and keeps nothing, so occasional reports never slow down later appends.
+     * Chronological order (getRideHistory) is unaffected.</p>
+     *
+     * @return new LinkedList of visitors sorted by VIP → Age → Name
+     */
+    public LinkedList<Visitor> getSortedHistory() {
+        return rideHistory.isSorted() ? rideHistory.toSortedList() : rideHistory.toSortedList(RideComparator.HISTORY_ORDER);
+    }
+    public void setVerbose(boolean verbose) { this.verbose = verbose; }
+
+    /**
+     * Replaces the clock used to timestamp dispatches (e.g. a simulated clock).
+     * @param clock Non-null time source
+     * @throws IllegalArgumentException if clock is null
+     */
+    public void setClock(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock must not be null (" + rideName + ")");
+        }
+        this.clock = clock;
+    }
+
+    /**
+     * Enables the virtual queue (return-time reservations) alongside the standby line.
+     * <p>Design Rationale: each window admits enough guests for the cycles it spans, so
+     * returning guests never outnumber the seats runCycle can give them.</p>
+     *
+     * @param windowMillis Length of each return window (positive)
+     * @param cyclesPerWindow Cycles expected per window; window size = cyclesPerWindow x maxRidersPerCycle
+     * @throws IllegalArgumentException if an argument is not positive
+     */
+    public void enableVirtualQueue(long windowMillis, int cyclesPerWindow) {
+        if (cyclesPerWindow <= 0) {
+            throw new IllegalArgumentException("Cycles per window must be positive (received: " + cyclesPerWindow + ")");
+        }
+        this.virtualQueue = new VirtualQueue(windowMillis, cyclesPerWindow * maxRidersPerCycle);
+    }
+
+    /**
+     * Switches the ride to multi-vehicle mode: each cycle loads several cars (e.g. a coaster
+     * train) at once, filling them front to back in a single pass over the cycle's riders.
+     * <p>maxRidersPerCycle becomes the sum of the car capacities. Must not be called while a
+     * cycle is running.</p>
+     *
+     * @param capacities Seats per car in boarding order (each positive); null or empty
+     *                   returns to single-vehicle mode with the current maxRidersPerCycle
+     * @throws IllegalArgumentException if a capacity is not positive
+     */
+    public void setVehicleCapacities(int... capacities) {
+        if (capacities == null || capacities.length == 0) {
+            vehicleCapacities = null;
+            cycleVehicleLoads = new int[1];
+            return;
+        }
+        int seats = 0;
+        for (int capacity : capacities) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Vehicle capacity must be positive (received: " + capacity + ")");
+            }
+            seats += capacity;
+        }
+        vehicleCapacities = capacities.clone();
+        cycleVehicleLoads = new int[capacities.length];
+        maxRidersPerCycle = seats;
+        cycleRiders = new Visitor[seats];
+        cycleFromStandby = new boolean[seats];
+    }
+
+    /**
+     * Gets the seats per car.
+     * @return copy of the car capacities ({maxRidersPerCycle} in single-vehicle mode)
+     */
+    public int[] getVehicleCapacities() {
+        return vehicleCapacities == null ? new int[] { maxRidersPerCycle } : vehicleCapacities.clone();
+    }
+
+    /**
+     * Puts a Bloom filter in front of hasRidden, so most first-time riders are rejected
+     * without touching the exact index (useful when the exact index is large or remote).
+     * <p>Observed false-positive rate: getHistoryStore().getObservedFalsePositiveRate().</p>
+     *
+     * @param expectedVisitors Distinct riders the filter is sized for (positive)
+     * @param falsePositiveRate Target false-positive rate, in (0, 1)
+     * @param maxBytes Memory budget for the filter (positive; a smaller budget raises the rate)
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public void enableHistoryBloomFilter(long expectedVisitors, double falsePositiveRate, long maxBytes) {
+        rideHistory.setBloomFilter(new BloomFilter(expectedVisitors, falsePositiveRate, maxBytes));
+    }
+
+    /**
+     * Enables party loading: parties and single riders wait in their own lines and each car
+     * is packed with whole parties, then topped up with single riders, then the standby line.
+     * <p>Design Rationale: empty seats are the biggest throughput loss when families must sit
+     * together; packing looks only at the first `window` parties, so a cycle stays O(window).
+     * The party and single-rider lines are in-memory only (the journal records their riders
+     * when they board).</p>
+     *
+     * @param window Parties considered per car (positive)
+     * @throws IllegalArgumentException if window is not positive
+     */
+    public void enablePartyLoading(int window) {
+        this.partyQueue = new PartyQueue(window);
+    }
+
+    /**
+     * Turns duplicate-enqueue protection on or off (e.g. for app retries on flaky Wi-Fi).
+     * <p>Design Rationale: a concurrent hash set of queued visitorIds is kept next to the
+     * queue, so the duplicate check is O(1) instead of a contains() scan of the line.
+     * Enabling it indexes the visitors already waiting (O(n), once).</p>
+     *
+     * @param enabled true to reject visitors whose visitorId is already queued
+     */
+    public void setDeduplicateQueue(boolean enabled) {
+        if (!enabled) {
+            queuedVisitorIds = null;
+            return;
+        }
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        for (Visitor v : waitingQueue) {
+            if (v.getVisitorId() != null) {
+                ids.add(v.getVisitorId());
+            }
+        }
+        queuedVisitorIds = ids;
+    }
+
+    /**
+     * Sets the maximum number of waiting visitors (backpressure limit).
+     * <p>Covers the standby, party and single-rider lines together. Visitors already queued
+     * are kept; only new arrivals are rejected while full.</p>
+     *
+     * @param queueCapacity Positive capacity (Integer.MAX_VALUE = unbounded)
+     * @throws IllegalArgumentException if queueCapacity is not positive
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive (received: " + queueCapacity + ")");
+        }
+        this.queueCapacity = queueCapacity;
+    }
 
     // ------------------------------ Part3: Queue Operations ------------------------------
     /**
      * Adds a visitor to the waiting queue (FIFO).
-     * <p>Handles null visitors gracefully to prevent crashes.</p>
+     * <p>Handles null visitors gracefully to prevent crashes. Thread-safe when the ride
+     * was built with a concurrent queue (turn off verbose logging to avoid the console lock).</p>
      * 
      * @param visitor Visitor to add (can be null)
      */
@@ -61,13 +300,202 @@ public class Ride implements RideInterface {
             System.err.println("[ERROR] Cannot add null visitor to queue (" + rideName + ")");
             return;
         }
-        waitingQueue.offer(visitor);
-        System.out.println("[QUEUE] Added " + visitor.getName() + " to " + rideName + " queue");
+        if (!claimQueueId(visitor)) {
+            System.err.println("[ERROR] " + visitor.getName() + " is already in " + rideName + " queue");
+            return;
+        }
+        if (waitingCount() >= queueCapacity || !offerStandby(visitor)) {
+            releaseQueueId(visitor);
+            System.err.println("[ERROR] " + visitor.getName() + " rejected by " + rideName + " queue (full or already queued)");
+            return;
+        }
+        publish(RideEvent.Type.ENQUEUED, visitor);
+        if (verbose) {
+            System.out.println("[QUEUE] Added " + visitor.getName() + " to " + rideName + " queue");
+        }
+    }
+
+    /**
+     * Adds a group of visitors (tour group, school bus) to the waiting queue in one call.
+     * <p>Design Rationale: validates the batch once, appends it in a single bulk operation
+     * (one tail CAS for an MpscRingBuffer queue) and logs one summary line instead of one
+     * line per visitor (verbose only). Null entries (and duplicates in dedupe mode) are
+     * counted as rejected.</p>
+     *
+     * @param visitors Visitors to add, in arrival order
+     * @return int number of visitors actually queued
+     */
+    public int addAllToQueue(Collection<Visitor> visitors) {
+        if (visitors == null) {
+            System.err.println("[ERROR] Cannot add null visitor batch to queue (" + rideName + ")");
+            return 0;
+        }
+        Visitor[] batch = new Visitor[visitors.size()];
+        int valid = 0;
+        for (Visitor visitor : visitors) {
+            if (visitor != null && claimQueueId(visitor)) {
+                batch[valid++] = visitor;
+            }
+        }
+
+        int room = queueCapacity - waitingCount();
+        int admitted = Math.max(0, Math.min(valid, room)); // Backpressure: admit only what fits
+
+        int added;
+        RideJournal log = journal;
+        if (log == null) {
+            added = offerBatch(batch, valid, admitted);
+        } else {
+            synchronized (log) { // Queue order and log order must match for replay
+                added = offerBatch(batch, valid, admitted);
+                log.logEnqueueAll(batch, added);
+            }
+        }
+
+        if (added > 0) {
+            publishBatch(RideEvent.Type.ENQUEUED_BATCH, Arrays.asList(batch).subList(0, added)); // batch is ours alone
+        }
+        if (verbose) {
+            int rejected = visitors.size() - added;
+            System.out.println("[QUEUE] Added " + added + " visitors to " + rideName + " queue"
+                    + (rejected > 0 ? " (" + rejected + " rejected)" : ""));
+        }
+        return added;
+    }
+
+    /**
+     * Issues a return-time window instead of a place in the standby line.
+     * <p>When the window opens, runCycle boards the visitor ahead of the standby line.</p>
+     *
+     * @param visitor Visitor to reserve for
+     * @return Reservation with the return window, or null if the virtual queue is disabled / visitor is null
+     */
+    public Reservation reserveReturnTime(Visitor visitor) {
+        if (visitor == null) {
+            System.err.println("[ERROR] Cannot reserve return time for null visitor (" + rideName + ")");
+            return null;
+        }
+        if (virtualQueue == null) {
+            System.err.println("[ERROR] Virtual queue is not enabled on " + rideName);
+            return null;
+        }
+        Reservation reservation = virtualQueue.reserve(visitor, clock.millis());
+        if (verbose) {
+            System.out.println("[VIRTUAL QUEUE] " + rideName + " issued " + reservation);
+        }
+        return reservation;
+    }
+
+    /**
+     * Adds a party to the party line (all members board the same car together).
+     * @param party Party to queue (non-null, no larger than the biggest car)
+     */
+    public void addPartyToQueue(Party party) {
+        if (party == null) {
+            System.err.println("[ERROR] Cannot add null party to queue (" + rideName + ")");
+            return;
+        }
+        if (partyQueue == null) {
+            System.err.println("[ERROR] Party loading is not enabled on " + rideName);
+            return;
+        }
+        if (party.size() > largestVehicle()) {
+            System.err.println("[ERROR] " + party + " does not fit any " + rideName + " car (max " + largestVehicle() + " seats)");
+            return;
+        }
+        if (waitingCount() + party.size() > queueCapacity) {
+            System.err.println("[ERROR] " + party + " rejected by " + rideName + " queue (full)");
+            return;
+        }
+        partyQueue.offerParty(party);
+        publishBatch(RideEvent.Type.ENQUEUED_BATCH, party.getMembers());
+        if (verbose) {
+            System.out.println("[QUEUE] Added " + party + " to " + rideName + " party line");
+        }
+    }
+
+    /**
+     * Adds a visitor to the single-rider line (used to fill seats parties leave empty).
+     * @param visitor Visitor to queue (non-null)
+     */
+    public void addSingleRider(Visitor visitor) {
+        if (visitor == null) {
+            System.err.println("[ERROR] Cannot add null visitor to single-rider line (" + rideName + ")");
+            return;
+        }
+        if (partyQueue == null) {
+            System.err.println("[ERROR] Party loading is not enabled on " + rideName);
+            return;
+        }
+        if (waitingCount() >= queueCapacity) {
+            System.err.println("[ERROR] " + visitor.getName() + " rejected by " + rideName + " single-rider line (full)");
+            return;
+        }
+        partyQueue.offerSingleRider(visitor);
+        publish(RideEvent.Type.ENQUEUED, visitor);
+        if (verbose) {
+            System.out.println("[QUEUE] Added " + visitor.getName() + " to " + rideName + " single-rider line");
+        }
+    }
+
+    /**
+     * Non-blocking admission with backpressure: queues the visitor only if the line has room.
+     * <p>Unlike addToQueue, the caller gets a result object (accepted/rejected plus the
+     * estimated wait) so the gate system can redirect guests when the line is full.</p>
+     *
+     * @param visitor Visitor to admit
+     * @return QueueAdmission describing the outcome (never null)
+     */
+    public QueueAdmission tryAddToQueue(Visitor visitor) {
+        if (visitor == null) {
+            return QueueAdmission.rejected("Null visitor", waitingQueue.size(), QueueAdmission.UNKNOWN_WAIT);
+        }
+        int length = waitingQueue.size();
+        if (waitingCount() >= queueCapacity) {
+            return QueueAdmission.rejected("Queue full (capacity " + queueCapacity + ")", length, getEstimatedWait(length));
+        }
+        if (!claimQueueId(visitor)) {
+            return QueueAdmission.rejected("Already queued", length, getEstimatedWait(length));
+        }
+        if (!offerStandby(visitor)) {
+            releaseQueueId(visitor);
+            return QueueAdmission.rejected("Queue refused visitor (full or already queued)", length, getEstimatedWait(length));
+        }
+        int position = length + 1;
+        publish(RideEvent.Type.ENQUEUED, visitor);
+        if (verbose) {
+            System.out.println("[QUEUE] Added " + visitor.getName() + " to " + rideName + " queue (position " + position + ")");
+        }
+        return QueueAdmission.accepted(position, getEstimatedWait(position));
+    }
+
+    /**
+     * Estimates the wait for a visitor joining the back of the queue now (O(1)).
+     * @return long wait in milliseconds, or WaitTimeEstimator.UNKNOWN_WAIT before two cycles
+     */
+    public long getEstimatedWait() {
+        return getEstimatedWait(waitingQueue.size() + 1);
+    }
+
+    /**
+     * Estimates the wait for any queue position (O(1), no history scan).
+     * <p>Uses the EWMA dispatch interval maintained by runCycle and maxRidersPerCycle seats.</p>
+     *
+     * @param position 1-based queue position
+     * @return long wait in milliseconds, or WaitTimeEstimator.UNKNOWN_WAIT before two cycles
+     */
+    public long getEstimatedWait(int position) {
+        return waitEstimator.estimateWaitMillis(position, maxRidersPerCycle);
     }
 
     /**
      * Removes a specific visitor from the queue (not just the head).
-     * <p>Note: Inefficient for large queues (O(n)), but required by Part3.</p>
+     * <p>Note: O(n) with the default LinkedList; construct the ride with an
+     * IndexedVisitorQueue (O(1) unlink) or TombstoneVisitorQueue (O(1) lazy deletion)
+     * for long lines.</p>
+     * <p>Concurrency: removal is a consumer-side operation (an MpscRingBuffer allows one
+     * consumer), so it runs under the same lock as a cycle's drain and waits for an
+     * in-flight cycle to finish; gate threads calling addToQueue are never blocked.</p>
      * 
      * @param visitor Visitor to remove
      * @return true if removed, false otherwise
@@ -78,31 +506,212 @@ public class Ride implements RideInterface {
             System.err.println("[ERROR] Cannot remove null visitor from queue (" + rideName + ")");
             return false;
         }
-        boolean removed = waitingQueue.remove(visitor);
+        boolean removed;
+        synchronized (consumerLock) { // Never overlaps a cycle draining the same queue
+            RideJournal log = journal;
+            if (log == null) {
+                removed = waitingQueue.remove(visitor);
+            } else {
+                synchronized (log) {
+                    removed = waitingQueue.remove(visitor);
+                    if (removed) {
+                        log.logRemove(visitor);
+                    }
+                }
+            }
+        }
         if (removed) {
-            System.out.println("[QUEUE] Removed " + visitor.getName() + " from " + rideName + " queue");
+            releaseQueueId(visitor);
+            publish(RideEvent.Type.REMOVED, visitor);
+            if (verbose) {
+                System.out.println("[QUEUE] Removed " + visitor.getName() + " from " + rideName + " queue");
+            }
         } else {
             System.err.println("[ERROR] " + visitor.getName() + " not found in " + rideName + " queue");
         }
         return removed;
     }
 
+    /**
+     * Returns a visitor's 1-based position in the waiting queue ("what's my position in line").
+     * <p>O(log n) with an IndexedVisitorQueue (Fenwick tree over enqueue sequence numbers);
+     * other queue implementations fall back to an O(n) walk like printQueue.</p>
+     *
+     * @param visitor Visitor to look up
+     * @return int position (1 = boards next), or -1 if not in the queue
+     */
+    public int getQueuePosition(Visitor visitor) {
+        if (visitor == null) {
+            System.err.println("[ERROR] Cannot look up null visitor in queue (" + rideName + ")");
+            return -1;
+        }
+        int position = -1;
+        if (waitingQueue instanceof IndexedVisitorQueue) {
+            position = ((IndexedVisitorQueue) waitingQueue).positionOf(visitor);
+        } else {
+            int current = 1;
+            for (Visitor v : waitingQueue) {
+                if (v.equals(visitor)) {
+                    position = current;
+                    break;
+                }
+                current++;
+            }
+        }
+        if (verbose) {
+            System.out.println("[QUEUE] " + visitor.getName() + " position in " + rideName + " queue: " + position);
+        }
+        return position;
+    }
+
+    /**
+     * Captures an immutable view of the waiting queue for displays, exports and analytics.
+     * <p>O(chunks) with a ChunkedVisitorQueue (chunk arrays are shared, not copied);
+     * other queue implementations are copied once in O(n).</p>
+     *
+     * @return QueueSnapshot in boarding order (safe to read while the queue changes)
+     */
+    public QueueSnapshot snapshotQueue() {
+        if (waitingQueue instanceof ChunkedVisitorQueue) {
+            return ((ChunkedVisitorQueue) waitingQueue).snapshot();
+        }
+        return QueueSnapshot.copyOf(waitingQueue);
+    }
+
     /**
      * Prints the waiting queue with numbered entries (user-friendly).
+     * <p>Reads a snapshot, so concurrent addToQueue calls are neither blocked nor seen half-done.</p>
      */
     @Override
     public void printQueue() {
-        System.out.println("\n[QUEUE] " + rideName + " Waiting Queue (" + waitingQueue.size() + " visitors):");
-        if (waitingQueue.isEmpty()) {
+        QueueSnapshot snapshot = snapshotQueue();
+        System.out.println("\n[QUEUE] " + rideName + " Waiting Queue (" + snapshot.size() + " visitors):");
+        if (snapshot.isEmpty()) {
             System.out.println("  (Empty)");
             return;
         }
         int position = 1;
-        for (Visitor v : waitingQueue) {
+        for (Visitor v : snapshot) {
             System.out.println("  " + position++ + ". " + v);
         }
     }
 
+    /**
+     * Reserves a visitor's id in the dedupe set (always succeeds when dedupe is off).
+     * @return false if the visitorId is already queued
+     */
+    private boolean claimQueueId(Visitor visitor) {
+        Set<String> ids = queuedVisitorIds;
+        return ids == null || visitor.getVisitorId() == null || ids.add(visitor.getVisitorId());
+    }
+
+    /**
+     * Counts visitors waiting in every line (standby plus party and single-rider lines).
+     */
+    private int waitingCount() {
+        PartyQueue parties = partyQueue;
+        return waitingQueue.size() + (parties == null ? 0 : parties.getWaitingCount());
+    }
+
+    /**
+     * Releases a visitor's id from the dedupe set after it leaves (or never entered) the queue.
+     */
+    private void releaseQueueId(Visitor visitor) {
+        Set<String> ids = queuedVisitorIds;
+        if (ids != null && visitor.getVisitorId() != null) {
+            ids.remove(visitor.getVisitorId());
+        }
+    }
+
+    /**
+     * Offers a visitor to the standby line and, in durable mode, logs it atomically with the offer.
+     * @return true if the queue accepted the visitor
+     */
+    private boolean offerStandby(Visitor visitor) {
+        RideJournal log = journal;
+        if (log == null) {
+            return waitingQueue.offer(visitor);
+        }
+        synchronized (log) {
+            if (!waitingQueue.offer(visitor)) {
+                return false;
+            }
+            log.logEnqueue(visitor);
+            return true;
+        }
+    }
+
+    /**
+     * Appends the first {@code admitted} of {@code valid} batch entries, compacting the
+     * accepted visitors to the front of the array and releasing dedupe ids for the rest.
+     * @return int number of visitors queued (batch[0..added) afterwards)
+     */
+    private int offerBatch(Visitor[] batch, int valid, int admitted) {
+        int added = 0;
+        if (waitingQueue instanceof MpscRingBuffer) {
+            added = ((MpscRingBuffer<Visitor>) waitingQueue).offerAll(batch, 0, admitted);
+            for (int i = added; i < valid; i++) {
+                releaseQueueId(batch[i]);
+            }
+            return added;
+        }
+        for (int i = 0; i < valid; i++) {
+            if (i < admitted && waitingQueue.offer(batch[i])) {
+                batch[added++] = batch[i];
+            } else {
+                releaseQueueId(batch[i]);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Replaces queue, history and cycle count with recovered state (used by RideJournal).
+     * <p>Bypasses logging and the journal, since the state is being rebuilt from it.</p>
+     *
+     * @param queued Visitors still waiting, in queue order
+     * @param history Visitors already ridden, in history order
+     * @param timestamps Dispatch time of each history entry (parallel to history)
+     * @param cycleNumbers Cycle of each history entry (parallel to history; 0 = outside a cycle)
+     * @param cycles Completed cycle count
+     */
+    void restoreState(Collection<Visitor> queued, List<Visitor> history, long[] timestamps, int[] cycleNumbers, int cycles) {
+        waitingQueue.clear();
+        for (Visitor visitor : queued) {
+            if (!waitingQueue.offer(visitor)) {
+                System.err.println("[WARNING] Recovered visitor " + visitor.getName() + " does not fit " + rideName + " queue");
+            }
+        }
+        rideHistory.clear();
+        for (int i = 0; i < history.size(); i++) {
+            rideHistory.append(history.get(i), timestamps[i], cycleNumbers[i]);
+        }
+        cycleCount = cycles;
+        if (queuedVisitorIds != null) {
+            setDeduplicateQueue(true); // Re-index the recovered line
+        }
+    }
+
+    /**
+     * Publishes a visitor event to the event bus, if one is attached (never blocks).
+     */
+    private void publish(RideEvent.Type type, Visitor visitor) {
+        RideEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publish(new RideEvent(type, rideId, visitor, null, clock.millis()));
+        }
+    }
+
+    /**
+     * Publishes one event for a batch of visitors, if an event bus is attached (never blocks).
+     */
+    private void publishBatch(RideEvent.Type type, List<Visitor> visitors) {
+        RideEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publish(new RideEvent(type, rideId, visitors, clock.millis()));
+        }
+    }
+
     // ------------------------------ Part4A: History Operations ------------------------------
     /**
      * Adds a visitor to the ride history (permanent record).
@@ -114,12 +723,77 @@ public class Ride implements RideInterface {
             System.err.println("[ERROR] Cannot add null visitor to history (" + rideName + ")");
             return;
         }
-        rideHistory.add(visitor);
-        System.out.println("[HISTORY] Added " + visitor.getName() + " to " + rideName + " history");
+        long now = clock.millis();
+        RideJournal log = journal;
+        if (log == null) {
+            appendHistory(visitor, now);
+        } else {
+            synchronized (log) { // A checkpoint must never see the entry without its record
+                appendHistory(visitor, now);
+                log.logHistory(visitor, now);
+            }
+        }
+        publish(RideEvent.Type.HISTORY_ADDED, visitor);
+    }
+
+    /**
+     * Adds a batch of visitors to the history (e.g. an imported CSV).
+     * <p>Null entries are skipped; one summary line is printed (verbose only) instead of one
+     * per visitor.</p>
+     *
+     * @param visitors Visitors to record, oldest first
+     * @return int number of visitors added
+     */
+    public int addAllToHistory(Collection<Visitor> visitors) {
+        if (visitors == null) {
+            System.err.println("[ERROR] Cannot add null visitor batch to history (" + rideName + ")");
+            return 0;
+        }
+        long now = clock.millis();
+        int added = 0;
+        List<Visitor> published = eventBus == null ? null : new ArrayList<>(visitors.size());
+        for (Visitor visitor : visitors) {
+            if (visitor == null) {
+                continue;
+            }
+            RideJournal log = journal;
+            if (log == null) {
+                rideHistory.append(visitor, now, 0);
+            } else {
+                synchronized (log) {
+                    rideHistory.append(visitor, now, 0);
+                    log.logHistory(visitor, now);
+                }
+            }
+            if (published != null) {
+                published.add(visitor);
+            }
+            added++;
+        }
+        if (published != null && added > 0) {
+            publishBatch(RideEvent.Type.HISTORY_ADDED_BATCH, published);
+        }
+        if (verbose) {
+            System.out.println("[HISTORY] Added " + added + " visitors to " + rideName + " history");
+        }
+        return added;
+    }
+
+    /**
+     * Appends a (non-null) rider to history without journaling (runCycle logs whole cycles).
+     */
+    private void appendHistory(Visitor visitor, long now) {
+        rideHistory.append(visitor, now, 0); // Cycle 0: recorded outside a cycle
+        if (verbose) {
+            System.out.println("[HISTORY] Added " + visitor.getName() + " to " + rideName + " history");
+        }
     }
 
     /**
      * Checks if a visitor has ridden the ride before.
+     * <p>Safe to call from any thread while cycles run: it sees every rider loaded before
+     * the call and may miss a cycle finishing at the same moment.</p>
+     *
      * @param visitor Visitor to check
      * @return true if in history, false otherwise
      */
@@ -129,8 +803,10 @@ public class Ride implements RideInterface {
             System.err.println("[ERROR] Cannot check null visitor in history (" + rideName + ")");
             return false;
         }
-        boolean exists = rideHistory.contains(visitor);
-        System.out.println("[HISTORY] " + visitor.getName() + " has ridden " + rideName + ": " + exists);
+        boolean exists = rideHistory.contains(visitor); // O(1): [Bloom filter] + registry lookup + ridden bit set
+        if (verbose) {
+            System.out.println("[HISTORY] " + visitor.getName() + " has ridden " + rideName + ": " + exists);
+        }
         return exists;
     }
 
@@ -144,6 +820,29 @@ public class Ride implements RideInterface {
         return rideHistory.size();
     }
 
+    /**
+     * Gets the visitors dispatched in a time window (e.g. for incident investigations).
+     * <p>O(log n + k): history is stored in dispatch order and binary-searched by time.</p>
+     *
+     * @param fromMillis Window start, ride clock time (inclusive)
+     * @param toMillis Window end, ride clock time (exclusive)
+     * @return List of visitors who rode in [fromMillis, toMillis), oldest first
+     */
+    public List<Visitor> getHistoryBetween(long fromMillis, long toMillis) {
+        return rideHistory.getBetween(fromMillis, toMillis);
+    }
+
+    /**
+     * Counts the riders dispatched in a time window (e.g. hourly throughput reports).
+     *
+     * @param fromMillis Window start, ride clock time (inclusive)
+     * @param toMillis Window end, ride clock time (exclusive)
+     * @return int riders in [fromMillis, toMillis)
+     */
+    public int getHistoryCountBetween(long fromMillis, long toMillis) {
+        return rideHistory.countBetween(fromMillis, toMillis);
+    }
+
     /**
      * Prints the ride history using Iterator (Part4A requirement).
      * <p>Design Note: Uses Iterator to comply with assignment requirements,
@@ -156,7 +855,7 @@ public class Ride implements RideInterface {
             System.out.println("  (Empty)");
             return;
         }
-        Iterator<Visitor> iterator = rideHistory.iterator();
+        Iterator<Visitor> iterator = printSorted ? rideHistory.sortedIterator() : rideHistory.iterator();
         int entry = 1;
         while (iterator.hasNext()) {
             System.out.println("  " + entry++ + ". " + iterator.next());
@@ -166,17 +865,35 @@ public class Ride implements RideInterface {
     // ------------------------------ Part4B: Sort History ------------------------------
     /**
      * Sorts the ride history using RideComparator (multi-level rules).
-     * <p>Design Rationale: Uses external Comparator (not Comparable) to comply with Part4B.</p>
+     * <p>Design Rationale: Uses external Comparator (not Comparable) to comply with Part4B.
+     * Entries stay in chronological order; a sorted index is kept alongside them and
+     * updated on every append, so printHistory()/getSortedHistory() never re-sort, until
+     * unsortHistory() drops it.</p>
      */
     public void sortHistory() {
         if (rideHistory.isEmpty()) {
             System.err.println("[WARNING] Cannot sort empty history (" + rideName + ")");
             return;
         }
-        Collections.sort(rideHistory, new RideComparator());
+        if (!rideHistory.isSorted()) {
+            rideHistory.setSortOrder(RideComparator.HISTORY_ORDER); // Built once, then O(log n) per append
+        }
+        printSorted = true;
         System.out.println("[HISTORY] Sorted " + rideName + " history by VIP → Age → Name");
     }
 
+    /**
+     * Returns printHistory() to chronological order and drops the sorted index, so appends
+     * stop maintaining it (getSortedHistory still works, sorting per call).
+     */
+    public void unsortHistory() {
+        rideHistory.setSortOrder(null);
+        printSorted = false;
+        if (verbose) {
+            System.out.println("[HISTORY] " + rideName + " history back in ride order");
+        }
+    }
+
     // ------------------------------ Part5: Run Cycle ------------------------------
     /**
      * Runs one operational cycle of the ride (transfers visitors from queue to history).
@@ -184,34 +901,307 @@ public class Ride implements RideInterface {
      * 1. Requires an assigned operator
      * 2. Requires at least one visitor in the queue
      * 3. Limits riders to maxRidersPerCycle per cycle
+     * 4. Virtual-queue guests whose return window is open board before the standby line
      * </p>
      */
     @Override
     public void runCycle() {
-        System.out.println("\n[CYCLE] Attempting to run " + rideName + " Cycle " + (cycleCount + 1));
-        
+        CycleResult.Status status = executeCycle();
+        RideEventBus bus = eventBus;
+        if (bus != null) {
+            publishCycle(bus, cycleResult(status)); // Listeners need a value; quiet rides build none
+        }
+    }
+
+    /**
+     * Runs one cycle (same rules as runCycle) and reports the outcome as a value.
+     * <p>Must not run concurrently with another cycle of this ride; use runCycleAsync to
+     * pipeline cycles across rides safely. With verbose off nothing is printed: callers
+     * (simulators, dispatchers) read the outcome from the result instead.</p>
+     * <p>The result copies the riders out of the reused cycle buffers; runCycle skips that
+     * copy unless an event bus needs it, so a successful quiet cycle allocates nothing.</p>
+     *
+     * @return CycleResult with the riders loaded, cycle number, failure reason and timing
+     */
+    public CycleResult dispatchCycle() {
+        CycleResult result = cycleResult(executeCycle());
+        RideEventBus bus = eventBus;
+        if (bus != null) {
+            publishCycle(bus, result);
+        }
+        return result;
+    }
+
+    /**
+     * Publishes a cycle's outcome as CYCLE_COMPLETED or CYCLE_FAILED.
+     */
+    private void publishCycle(RideEventBus bus, CycleResult result) {
+        RideEvent.Type type = result.isSuccess() ? RideEvent.Type.CYCLE_COMPLETED : RideEvent.Type.CYCLE_FAILED;
+        bus.publish(new RideEvent(type, rideId, null, result, result.getDispatchMillis()));
+    }
+
+    /**
+     * Builds the value for the latest cycle from the reused cycle buffers.
+     * @param status Outcome returned by executeCycle
+     * @return CycleResult (success copies the riders and car loads)
+     */
+    private CycleResult cycleResult(CycleResult.Status status) {
+        if (status != CycleResult.Status.SUCCESS) {
+            return CycleResult.failed(rideId, status, cycleFailure, cycleCount + 1, cycleMillis, cycleNanos);
+        }
+        return CycleResult.success(rideId, cycleCount, cycleRiders, cycleLoaded, cycleVehicleLoads, cycleVehicles, cycleMillis, cycleNanos);
+    }
+
+    /**
+     * Records a failed attempt in the latest-cycle fields.
+     * @return status (for chaining)
+     */
+    private CycleResult.Status failCycle(CycleResult.Status status, String reason, long now, long startNanos) {
+        if (verbose) {
+            System.err.println("[CYCLE FAILED] " + reason);
+        }
+        cycleFailure = reason;
+        cycleMillis = now;
+        cycleNanos = System.nanoTime() - startNanos;
+        return status;
+    }
+
+    /**
+     * Runs the cycle itself (validation, loading, seating, bookkeeping) without allocating:
+     * the outcome is left in cycleRiders, cycleVehicleLoads and the latest-cycle fields.
+     * @return CycleResult.Status of the attempt
+     */
+    private CycleResult.Status executeCycle() {
+        long startNanos = System.nanoTime();
+        if (verbose) {
+            System.out.println("\n[CYCLE] Attempting to run " + rideName + " Cycle " + (cycleCount + 1));
+        }
+        long now = clock.millis();
+
         // Validate prerequisites
         if (operator == null) {
-            System.err.println("[CYCLE FAILED] No operator assigned to " + rideName);
-            return;
+            return failCycle(CycleResult.Status.NO_OPERATOR, "No operator assigned to " + rideName, now, startNanos);
         }
-        if (waitingQueue.isEmpty()) {
-            System.err.println("[CYCLE FAILED] No visitors in " + rideName + " queue");
-            return;
+        if (virtualQueue != null) {
+            virtualQueue.advance(now); // Open any return windows that are due
+        }
+        int returning = virtualQueue == null ? 0 : virtualQueue.getReadyCount();
+        int parties = partyQueue == null ? 0 : partyQueue.getWaitingCount();
+        if (waitingQueue.isEmpty() && returning == 0 && parties == 0) {
+            return failCycle(CycleResult.Status.EMPTY_QUEUE, "No visitors in " + rideName + " queue", now, startNanos);
         }
 
         // Calculate number of riders (up to max per cycle)
-        int ridersThisCycle = Math.min(maxRidersPerCycle, waitingQueue.size());
-        System.out.println("[CYCLE] " + rideName + " loading " + ridersThisCycle + " riders...");
+        int ridersThisCycle = Math.min(maxRidersPerCycle, returning + parties + waitingQueue.size());
+        if (verbose) {
+            System.out.println("[CYCLE] " + rideName + " loading " + ridersThisCycle + " riders...");
+        }
+
+        // Transfer visitors to history: returning reservations first, then the standby line
+        Visitor[] riders = cycleRiders;
+        boolean[] fromStandby = cycleFromStandby;
+        int loaded;
+        synchronized (consumerLock) { // removeFromQueue must not race the drain
+            RideJournal log = journal;
+            if (log == null) {
+                loaded = loadRiders(ridersThisCycle, now);
+            } else {
+                synchronized (log) { // No enqueue record may slip between the polls and the cycle record
+                    loaded = loadRiders(ridersThisCycle, now);
+                    if (loaded > 0) {
+                        log.logCycle(cycleCount + 1, now, riders, fromStandby, loaded);
+                    }
+                }
+            }
+        }
+        if (loaded == 0) {
+            return failCycle(CycleResult.Status.EMPTY_QUEUE, "No boardable visitors in " + rideName + " queue", now, startNanos);
+        }
 
-        // Transfer visitors from queue to history
-        for (int i = 0; i < ridersThisCycle; i++) {
-            Visitor rider = waitingQueue.poll(); // Remove from queue head (FIFO)
-            addToHistory(rider); // Add to permanent history
+        // Seat the riders: cars fill front to back in boarding order (one pass; packed per car in party mode)
+        int vehicles = partyQueue == null ? assignVehicles(loaded) : vehicleCount();
+        if (verbose && vehicleCapacities != null) {
+            System.out.println("[CYCLE] " + rideName + " car loads: " + Arrays.toString(Arrays.copyOf(cycleVehicleLoads, vehicles)));
         }
 
-        // Increment cycle count
+        // Increment cycle count and feed the dispatch time to the wait estimator
+        waitEstimator.recordDispatch(now, loaded);
         cycleCount++;
-        System.out.println("[CYCLE SUCCESS] " + rideName + " completed Cycle " + cycleCount);
+        if (verbose) {
+            System.out.println("[CYCLE SUCCESS] " + rideName + " completed Cycle " + cycleCount);
+        }
+        cycleFailure = null;
+        cycleLoaded = loaded;
+        cycleVehicles = vehicles;
+        cycleMillis = now;
+        cycleNanos = System.nanoTime() - startNanos;
+        return CycleResult.Status.SUCCESS;
+    }
+
+    /**
+     * Runs one cycle asynchronously on the common ForkJoinPool.
+     * @return CompletableFuture completed with the cycle's CycleResult
+     */
+    public CompletableFuture<CycleResult> runCycleAsync() {
+        return runCycleAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs one cycle asynchronously on the given executor.
+     * <p>Cycles of one ride are chained, so each starts only after the previous one of the
+     * same ride finished (even if it failed); cycles of different rides run in parallel.</p>
+     *
+     * @param executor Executor that runs the cycle (non-null)
+     * @return CompletableFuture completed with the cycle's CycleResult (or exceptionally)
+     */
+    public CompletableFuture<CycleResult> runCycleAsync(Executor executor) {
+        Objects.requireNonNull(executor, "executor");
+        synchronized (this) {
+            CompletableFuture<CycleResult> next = lastAsyncCycle.handleAsync((previous, failure) -> dispatchCycle(), executor);
+            lastAsyncCycle = next;
+            return next;
+        }
+    }
+
+    /**
+     * Moves up to count visitors into history: returning reservations first, then standby.
+     * <p>Bulk path: riders are drained into the reused cycle buffer and appended to history
+     * in one pass, with no per-rider allocation, null checks or console output.</p>
+     *
+     * @param count Seats to fill (at most maxRidersPerCycle; party mode fills car by car instead)
+     * @param now Dispatch time (for return-window checks)
+     * @return int number of riders loaded into cycleRiders[0..loaded)
+     */
+    private int loadRiders(int count, long now) {
+        if (partyQueue != null) {
+            return appendCycleHistory(loadPackedRiders(now), now);
+        }
+        Visitor[] riders = cycleRiders;
+        int loaded = 0;
+        if (virtualQueue != null) {
+            Visitor rider;
+            while (loaded < count && (rider = virtualQueue.pollReady(now)) != null) {
+                cycleFromStandby[loaded] = false;
+                riders[loaded++] = rider;
+            }
+        }
+        int returning = loaded;
+        loaded += drainStandby(riders, loaded, count - loaded); // Queue head first (FIFO)
+        for (int i = returning; i < loaded; i++) {
+            cycleFromStandby[i] = true;
+        }
+        return appendCycleHistory(loaded, now);
+    }
+
+    /**
+     * Party mode: fills each car in turn with returning reservations, whole parties
+     * (first-fit over the packing window), single riders, then the standby line.
+     * <p>Records each car's load in cycleVehicleLoads; car k seats a contiguous run of riders.</p>
+     *
+     * @param now Dispatch time (for return-window checks)
+     * @return int number of riders loaded into cycleRiders[0..loaded)
+     */
+    private int loadPackedRiders(long now) {
+        Visitor[] riders = cycleRiders;
+        int loaded = 0;
+        for (int car = 0; car < vehicleCount(); car++) {
+            int start = loaded;
+            int free = vehicleCapacities == null ? maxRidersPerCycle : vehicleCapacities[car];
+            Visitor rider;
+            while (loaded - start < free && virtualQueue != null && (rider = virtualQueue.pollReady(now)) != null) {
+                riders[loaded++] = rider;
+            }
+            loaded += partyQueue.fill(riders, loaded, free - (loaded - start));
+            for (int i = start; i < loaded; i++) {
+                cycleFromStandby[i] = false;
+            }
+            int drained = drainStandby(riders, loaded, free - (loaded - start)); // Standby line tops up the car
+            for (int i = loaded; i < loaded + drained; i++) {
+                cycleFromStandby[i] = true;
+            }
+            loaded += drained;
+            cycleVehicleLoads[car] = loaded - start;
+        }
+        return loaded;
+    }
+
+    /**
+     * Appends cycleRiders[0..loaded) to history in one pass with a single summary log line.
+     * @return int loaded (for chaining)
+     */
+    private int appendCycleHistory(int loaded, long now) {
+        Visitor[] riders = cycleRiders;
+        for (int i = 0; i < loaded; i++) {
+            rideHistory.append(riders[i], now, cycleCount + 1); // Add to permanent history (cycle being run)
+        }
+        if (verbose && loaded > 0) {
+            System.out.println("[HISTORY] Added " + loaded + " riders to " + rideName + " history");
+        }
+        return loaded;
+    }
+
+    /**
+     * Gets the number of cars loaded per cycle (1 in single-vehicle mode).
+     */
+    private int vehicleCount() {
+        return vehicleCapacities == null ? 1 : vehicleCapacities.length;
+    }
+
+    /**
+     * Gets the seats of the biggest car (the largest party that can board).
+     */
+    private int largestVehicle() {
+        if (vehicleCapacities == null) {
+            return maxRidersPerCycle;
+        }
+        int largest = 0;
+        for (int capacity : vehicleCapacities) {
+            largest = Math.max(largest, capacity);
+        }
+        return largest;
+    }
+
+    /**
+     * Assigns riders[0..loaded) to cars in one pass, filling each car before the next.
+     * <p>Riders board in queue order, so car k holds a contiguous run of the cycle's riders.</p>
+     *
+     * @param loaded Riders in the cycle buffer
+     * @return int number of cars in use (cycleVehicleLoads[0..vehicles) holds their loads)
+     */
+    private int assignVehicles(int loaded) {
+        int[] loads = cycleVehicleLoads;
+        if (vehicleCapacities == null) {
+            loads[0] = loaded;
+            return 1;
+        }
+        int remaining = loaded;
+        for (int car = 0; car < loads.length; car++) {
+            loads[car] = Math.min(vehicleCapacities[car], remaining);
+            remaining -= loads[car];
+        }
+        return loads.length;
+    }
+
+    /**
+     * Drains up to max visitors from the standby line into dst, keeping the dedupe set in step.
+     * @return int number drained (fewer if the line empties or a producer has not yet published)
+     */
+    private int drainStandby(Visitor[] dst, int from, int max) {
+        int drained;
+        if (waitingQueue instanceof MpscRingBuffer) {
+            drained = ((MpscRingBuffer<Visitor>) waitingQueue).drainTo(dst, from, max);
+        } else {
+            Visitor visitor;
+            drained = 0;
+            while (drained < max && (visitor = waitingQueue.poll()) != null) {
+                dst[from + drained++] = visitor;
+            }
+        }
+        if (queuedVisitorIds != null) {
+            for (int i = from; i < from + drained; i++) {
+                releaseQueueId(dst[i]);
+            }
+        }
+        return drained;
     }
 }
\ No newline at end of file
@@ -15,6 +15,21 @@ import java.util.Comparator;
  */
 public class RideComparator implements Comparator<Visitor> {
 
+    /**
+     * The same rules over HistoryStore columns, for sorted history views (no Visitor objects).
+     */
+    public static final HistoryStore.EntryOrder HISTORY_ORDER = (history, a, b) -> {
+        int membershipCompare = history.membershipAt(b).compareTo(history.membershipAt(a));
+        if (membershipCompare != 0) {
+            return membershipCompare;
+        }
+        int ageCompare = Integer.compare(history.ageAt(b), history.ageAt(a));
+        if (ageCompare != 0) {
+            return ageCompare;
+        }
+        return history.nameAt(a).compareToIgnoreCase(history.nameAt(b));
+    };
+
     /**
      * Compares two Visitor objects using hierarchical rules.
      * @param v1 First Visitor to compare
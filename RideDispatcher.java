@@ -0,0 +1,199 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared scheduler that runs every registered ride's cycle on its configured interval.
+ * <p>Design Choices:
+ * - One ScheduledThreadPoolExecutor with a handful of daemon platform threads serves
+ *   thousands of rides: each ride is a one-shot task that reschedules itself, not a thread
+ * - A ride's task never overlaps itself, so runCycle keeps its single-consumer contract
+ * - Slots stay on the original fixed-rate grid, but a slot whose time has already passed
+ *   (a slow cycle or a saturated dispatcher) is skipped and counted as missed instead of
+ *   being run back-to-back to catch up
+ * - Every dispatch records planned vs actual start time in the ride's DispatchStats,
+ *   making scheduler jitter and missed dispatches measurable under load
+ * </p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class RideDispatcher implements AutoCloseable {
+
+    /**
+     * Scheduled task for one ride.
+     */
+    private static final class Registration implements Runnable {
+        final ScheduledThreadPoolExecutor scheduler;
+        final Ride ride;
+        final long intervalNanos;
+        final long startNanos;        // Planned start of dispatch 0 (monotonic clock)
+        final long startMillis;       // Wall-clock equivalent of startNanos
+        final DispatchStats stats;
+        long dispatchIndex;           // Next slot number (only touched by the running task)
+        ScheduledFuture<?> future;    // Pending run (guarded by this)
+        boolean cancelled;            // Set by cancel(); stops rescheduling (guarded by this)
+
+        Registration(ScheduledThreadPoolExecutor scheduler, Ride ride, long intervalNanos, long initialDelayNanos) {
+            this.scheduler = scheduler;
+            this.ride = ride;
+            this.intervalNanos = intervalNanos;
+            this.startNanos = System.nanoTime() + initialDelayNanos;
+            this.startMillis = System.currentTimeMillis() + initialDelayNanos / 1_000_000;
+            this.stats = new DispatchStats(intervalNanos);
+        }
+
+        @Override
+        public void run() {
+            long plannedOffset = dispatchIndex * intervalNanos;
+            long lateness = Math.max(0, System.nanoTime() - (startNanos + plannedOffset));
+            if (lateness < intervalNanos) {
+                long plannedMillis = startMillis + plannedOffset / 1_000_000;
+                stats.recordDispatch(plannedMillis, plannedMillis + lateness / 1_000_000, lateness);
+                try {
+                    ride.runCycle();
+                } catch (RuntimeException e) {
+                    // Swallow so one faulty ride does not cancel its own schedule
+                    stats.recordFailure();
+                    System.err.println("[DISPATCH ERROR] " + ride.getRideName() + " cycle failed: " + e.getMessage());
+                }
+                dispatchIndex++;
+            }
+            // else: the dispatcher started this run a whole slot late; scheduleNext counts it as missed
+            scheduleNext();
+        }
+
+        /**
+         * Schedules the next slot that is still in the future, skipping (and counting as
+         * missed) every slot whose planned start has already passed.
+         */
+        void scheduleNext() {
+            long now = System.nanoTime();
+            long due = startNanos + dispatchIndex * intervalNanos;
+            if (now >= due) {
+                long skipped = (now - due) / intervalNanos + 1;
+                stats.recordMissed(skipped);
+                dispatchIndex += skipped;
+                due += skipped * intervalNanos;
+            }
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                try {
+                    future = scheduler.schedule(this, due - now, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    cancelled = true; // Dispatcher closed while the cycle ran
+                }
+            }
+        }
+
+        /**
+         * Stops rescheduling and cancels the pending run (an in-progress cycle finishes).
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            if (future != null) { // Null only if schedule() failed to submit the first run
+                future.cancel(false);
+            }
+        }
+    }
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Map<Ride, Registration> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a dispatcher backed by the given number of platform threads.
+     *
+     * @param threads Scheduler threads (positive; a handful serves thousands of rides)
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public RideDispatcher(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Dispatcher needs at least one thread (received: " + threads + ")");
+        }
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.scheduler = new ScheduledThreadPoolExecutor(threads, task -> {
+            Thread thread = new Thread(task, "ride-dispatcher-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); // close() drops pending slots
+    }
+
+    /**
+     * Starts dispatching a ride every intervalMillis (first dispatch one interval from now).
+     * <p>Slots that pass while a cycle is still running are skipped, not run late.</p>
+     *
+     * @param ride Ride to drive (must not already be scheduled)
+     * @param intervalMillis Planned time between dispatches (positive)
+     * @return DispatchStats updated on every dispatch
+     * @throws IllegalArgumentException if the ride is null/already scheduled or the interval is not positive
+     * @throws RejectedExecutionException if the dispatcher has been closed
+     */
+    public DispatchStats schedule(Ride ride, long intervalMillis) {
+        if (ride == null || intervalMillis <= 0) {
+            throw new IllegalArgumentException("Ride must be non-null and interval positive");
+        }
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        Registration registration = new Registration(scheduler, ride, intervalNanos, intervalNanos);
+        synchronized (registration) { // A concurrent cancel(ride) waits until future is set
+            if (registrations.putIfAbsent(ride, registration) != null) {
+                throw new IllegalArgumentException(ride.getRideName() + " is already scheduled");
+            }
+            try {
+                registration.future = scheduler.schedule(registration, intervalNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                registrations.remove(ride, registration);
+                throw e;
+            }
+        }
+        return registration.stats;
+    }
+
+    /**
+     * Stops dispatching a ride (an in-progress cycle is allowed to finish).
+     * @param ride Ride to stop
+     * @return true if the ride was scheduled
+     */
+    public boolean cancel(Ride ride) {
+        Registration registration = registrations.remove(ride);
+        if (registration == null) {
+            return false;
+        }
+        registration.cancel();
+        return true;
+    }
+
+    /**
+     * Gets the dispatch statistics of a scheduled ride.
+     * @param ride Scheduled ride
+     * @return DispatchStats, or null if the ride is not scheduled
+     */
+    public DispatchStats getStats(Ride ride) {
+        Registration registration = registrations.get(ride);
+        return registration == null ? null : registration.stats;
+    }
+
+    /**
+     * Gets the number of rides currently scheduled.
+     * @return int scheduled ride count
+     */
+    public int getScheduledRideCount() {
+        return registrations.size();
+    }
+
+    /**
+     * Stops all dispatching; in-progress cycles finish, no new ones start.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        registrations.clear();
+    }
+}
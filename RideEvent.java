@@ -0,0 +1,86 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable state-change notification published by a Ride (delivered by RideEventBus).
+ * <p>Design Rationale: dashboards, audit, metrics and exports consume typed events
+ * instead of parsing console output; cycle events carry the full CycleResult, so there
+ * is one event per cycle rather than one per rider. Bulk operations (addAllToQueue, a
+ * party joining, addAllToHistory) likewise publish one batch event carrying every visitor.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public final class RideEvent {
+
+    /**
+     * Kind of state change.
+     */
+    public enum Type {
+        ENQUEUED,           // Visitor joined a line (standby or single-rider)
+        ENQUEUED_BATCH,     // Several visitors joined at once: addAllToQueue or a party (see getVisitors())
+        REMOVED,            // Visitor left the standby line
+        HISTORY_ADDED,      // Visitor added to history outside a cycle (addToHistory)
+        HISTORY_ADDED_BATCH, // Visitors added to history by addAllToHistory (see getVisitors())
+        CYCLE_COMPLETED,    // Cycle dispatched riders (see getCycleResult())
+        CYCLE_FAILED        // Cycle could not run (see getCycleResult().getReason())
+    }
+
+    private final Type type;
+    private final String rideId;
+    private final Visitor visitor;          // Visitor concerned (null for cycle and batch events)
+    private final List<Visitor> visitors;   // Batch members in order (empty for other events)
+    private final CycleResult cycleResult;  // Cycle outcome (null for visitor events)
+    private final long timestampMillis;     // Ride clock time of the change
+
+    /**
+     * Creates an event.
+     *
+     * @param type Kind of state change
+     * @param rideId Ride that changed
+     * @param visitor Visitor concerned (null for cycle events)
+     * @param cycleResult Cycle outcome (null for visitor events)
+     * @param timestampMillis Ride clock time of the change
+     */
+    public RideEvent(Type type, String rideId, Visitor visitor, CycleResult cycleResult, long timestampMillis) {
+        this.type = type;
+        this.rideId = rideId;
+        this.visitor = visitor;
+        this.visitors = Collections.emptyList();
+        this.cycleResult = cycleResult;
+        this.timestampMillis = timestampMillis;
+    }
+
+    /**
+     * Creates a batch event (one event for many visitors).
+     *
+     * @param type ENQUEUED_BATCH or HISTORY_ADDED_BATCH
+     * @param rideId Ride that changed
+     * @param visitors Visitors concerned, in order (wrapped, not copied: pass a list nobody modifies)
+     * @param timestampMillis Ride clock time of the change
+     */
+    public RideEvent(Type type, String rideId, List<Visitor> visitors, long timestampMillis) {
+        this.type = type;
+        this.rideId = rideId;
+        this.visitor = null;
+        this.visitors = Collections.unmodifiableList(visitors);
+        this.cycleResult = null;
+        this.timestampMillis = timestampMillis;
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public Type getType() { return type; }
+    public String getRideId() { return rideId; }
+    public Visitor getVisitor() { return visitor; }
+    public List<Visitor> getVisitors() { return visitors; }
+    public CycleResult getCycleResult() { return cycleResult; }
+    public long getTimestampMillis() { return timestampMillis; }
+
+    @Override
+    public String toString() {
+        String subject = cycleResult != null ? cycleResult.toString()
+                : visitor != null ? visitor.getName()
+                : visitors.isEmpty() ? "-" : visitors.size() + " visitors";
+        return String.format("[%d] %s %s: %s", timestampMillis, rideId, type, subject);
+    }
+}
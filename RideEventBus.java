@@ -0,0 +1,138 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous event pipeline from rides to listeners.
+ * <p>Design Choices:
+ * - Producers (gate threads, the cycle thread) publish into a lock-free MpscRingBuffer with
+ *   one CAS (plus an in-flight counter for close) and never wait: when the ring is full the
+ *   event is dropped and counted, so a stalled consumer can never add latency to
+ *   addToQueue or runCycle
+ * - One daemon thread drains the ring in batches and calls every listener in turn; a
+ *   listener that throws is logged and skipped, not unsubscribed
+ * - Listeners live in a CopyOnWriteArrayList (subscribe is rare, delivery is hot)
+ * - An idle consumer parks briefly instead of being woken by producers (no syscall on publish)
+ * </p>
+ * <p>Ordering: events are delivered in the order they were published. Rides publish after
+ * the state change and outside their locks (gate threads never wait for a cycle), so
+ * events from different threads are ordered best-effort only: a visitor's ENQUEUED from a
+ * gate thread can arrive after the CYCLE_COMPLETED that boarded them. Listeners that need
+ * a causal view should key on visitorId and tolerate that order.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class RideEventBus implements AutoCloseable {
+    private static final int DRAIN_BATCH = 256;                  // Events moved per ring pass
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200); // Idle back-off
+
+    private final MpscRingBuffer<RideEvent> ring;                 // Published, not yet delivered
+    private final List<RideEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();         // Events rejected (ring full or closed)
+    private final AtomicInteger publishing = new AtomicInteger(); // publish() calls between the running check and the offer
+    private final Thread consumer;                               // Delivery thread
+    private volatile boolean running = true;
+    private volatile long delivered;                             // Events handed to listeners (consumer only)
+
+    /**
+     * Creates a bus and starts its delivery thread.
+     * @param capacity Ring capacity in events (rounded up to a power of two)
+     */
+    public RideEventBus(int capacity) {
+        this.ring = new MpscRingBuffer<>(capacity);
+        this.consumer = new Thread(this::deliverLoop, "ride-event-bus");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Registers a listener (receives events published from now on).
+     * @param listener Listener to add (non-null)
+     */
+    public void subscribe(RideEventListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener Listener to remove
+     * @return true if it was subscribed
+     */
+    public boolean unsubscribe(RideEventListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Publishes an event without blocking (safe from any thread).
+     * @param event Event to deliver
+     * @return false if the event was dropped (ring full or bus closed)
+     */
+    public boolean publish(RideEvent event) {
+        publishing.incrementAndGet(); // Before reading running: close() then waits for this offer
+        try {
+            if (!running || !ring.offer(event)) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            return true;
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    // ------------------------------ Metrics ------------------------------
+    public long getDroppedCount() { return dropped.get(); }
+    public long getDeliveredCount() { return delivered; }
+    public int getPendingCount() { return ring.size(); }
+
+    /**
+     * Stops accepting events, delivers those already published, then stops the thread.
+     * <p>A publish racing with close is either delivered or counted as dropped: the consumer
+     * exits only once no publish() is between its running check and its offer.</p>
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Consumer thread: drains the ring in batches until closed and empty.
+     */
+    private void deliverLoop() {
+        RideEvent[] batch = new RideEvent[DRAIN_BATCH];
+        while (true) {
+            int count = ring.drainTo(batch, 0, batch.length);
+            if (count == 0) {
+                if (!running && publishing.get() == 0 && ring.isEmpty()) {
+                    return; // Any later publish() sees running == false and counts a drop
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                for (RideEventListener listener : listeners) {
+                    try {
+                        listener.onEvent(batch[i]);
+                    } catch (RuntimeException e) {
+                        System.err.println("[EVENT ERROR] Listener failed on " + batch[i].getType() + ": " + e);
+                    }
+                }
+                batch[i] = null;
+            }
+            delivered += count;
+        }
+    }
+}
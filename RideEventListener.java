@@ -0,0 +1,18 @@
+/**
+ * Subscriber to ride state changes (register with RideEventBus.subscribe).
+ * <p>Called on the bus's delivery thread, never on the thread that changed the ride, so a
+ * slow listener delays other listeners but never addToQueue or runCycle.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface RideEventListener {
+
+    /**
+     * Handles one event (events arrive in publication order; see RideEventBus for how
+     * events published from different threads are ordered).
+     * @param event Published event
+     */
+    void onEvent(RideEvent event);
+}
@@ -0,0 +1,706 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Per-ride write-ahead log of queue and history mutations (durable mode).
+ * <p>File Format: 8-byte header (magic + version), then records of
+ * [int payloadLength][int crc32][payload]. Payload types:
+ * - ENQUEUE: full visitor
+ * - REMOVE: visitor key (visitorId, or CSV form when the id is null)
+ * - HISTORY: full visitor (legacy direct addToHistory record, replayed with no timestamp)
+ * - HISTORY_AT: timestamp + full visitor (direct addToHistory)
+ * - CYCLE: cycle number, timestamp, riders (key if boarded from the standby line, else full visitor)
+ * - SNAPSHOT: cycle count, the whole standby line and the history columns (checkpoint)
+ * </p>
+ * <p>Group Commit: records are encoded into an in-memory buffer and written + fsynced
+ * together once groupSize records are pending or every flushIntervalMillis, so many
+ * mutations share one fsync. Recovery stops at the first torn or corrupt record and
+ * truncates the file there; a file that is not a journal is rejected, never truncated.</p>
+ * <p>Checkpoints: once the records since the last checkpoint reach checkpointRecords (and
+ * a quarter of the entries the previous snapshot held), the ride's state is written as one
+ * SNAPSHOT record to a new file that atomically replaces the log. Recovery then reads the
+ * current state plus a bounded tail instead of the ride's whole lifetime, and rewriting a
+ * large history stays amortised O(1) per record (about four snapshot entries each).</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class RideJournal implements AutoCloseable {
+    private static final int MAGIC = 0x524A4E4C;      // "RJNL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8; // length + crc
+    private static final int BUFFER_BYTES = 1 << 20;  // Group-commit buffer
+    private static final long DEFAULT_CHECKPOINT_RECORDS = 100_000;
+    private static final int SNAPSHOT_TAIL_RATIO = 4;  // Tail may grow to 1/4 of the last snapshot's entries
+
+    private static final byte ENQUEUE = 1;
+    private static final byte REMOVE = 2;
+    private static final byte HISTORY = 3;
+    private static final byte CYCLE = 4;
+    private static final byte HISTORY_AT = 5;
+    private static final byte SNAPSHOT = 6;
+
+    private static final byte FROM_STANDBY = 0;       // CYCLE rider stored as a key
+    private static final byte INLINE = 1;             // CYCLE rider stored in full
+
+    private final Path path;
+    private final Ride ride;                          // Ride whose state checkpoints capture
+    private FileChannel channel;                      // Replaced when a checkpoint compacts the log
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32 crc = new CRC32();
+    private final int groupSize;                      // Records per fsync batch
+    private final ScheduledExecutorService flusher;   // Periodic group commit (null = size-only)
+    private int pendingRecords;                       // Records buffered since the last fsync
+    private long checkpointRecords = DEFAULT_CHECKPOINT_RECORDS; // Min records between checkpoints (0 = manual only)
+    private long recordsSinceCheckpoint;              // Records appended after the last snapshot
+    private long lastSnapshotEntries;                 // Queue + history entries in the last snapshot
+    private long encodedEntries;                      // Entries in the snapshot being written
+    private int cycleCount;                           // Newest cycle logged (the ride increments after logging)
+    private long checkpointCount;                     // Checkpoints written
+
+    private RideJournal(Path path, Ride ride, FileChannel channel, int groupSize, long flushIntervalMillis) {
+        this.path = path;
+        this.ride = ride;
+        this.channel = channel;
+        this.groupSize = groupSize;
+        if (flushIntervalMillis > 0) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "journal-flush-" + path.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::sync, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Replays an existing journal into the ride, then opens it for appending and attaches it.
+     * <p>Default group commit: fsync every 256 records or every 10 ms, whichever comes first.</p>
+     *
+     * @param path Journal file (created if missing)
+     * @param ride Freshly constructed ride to restore into
+     * @return RideJournal attached to the ride
+     * @throws IOException if the file cannot be read or opened, or is not a ride journal
+     */
+    public static RideJournal openAndRecover(Path path, Ride ride) throws IOException {
+        return openAndRecover(path, ride, 256, 10);
+    }
+
+    /**
+     * Replays an existing journal into the ride, then opens it for appending and attaches it.
+     *
+     * @param path Journal file (created if missing)
+     * @param ride Freshly constructed ride to restore into
+     * @param groupSize Records per fsync batch (positive)
+     * @param flushIntervalMillis Max time a record waits for fsync (0 = only on groupSize/close)
+     * @return RideJournal attached to the ride
+     * @throws IOException if the file cannot be read or opened, or is not a ride journal
+     * @throws IllegalArgumentException if groupSize is not positive
+     */
+    public static RideJournal openAndRecover(Path path, Ride ride, int groupSize, long flushIntervalMillis) throws IOException {
+        if (groupSize <= 0) {
+            throw new IllegalArgumentException("Group size must be positive (received: " + groupSize + ")");
+        }
+        long[] recovered = new long[3]; // Records replayed, entries in the last snapshot, cycle count
+        long validBytes = Files.exists(path) ? replay(path, ride, recovered) : 0;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (validBytes < HEADER_BYTES) {
+            channel.truncate(0); // New file, or a header torn while the file was being created
+            writeHeader(channel);
+            validBytes = HEADER_BYTES;
+        } else {
+            channel.truncate(validBytes); // Drop a torn tail left by a crash
+        }
+        channel.position(validBytes);
+        channel.force(true);
+        RideJournal journal = new RideJournal(path, ride, channel, groupSize, flushIntervalMillis);
+        journal.recordsSinceCheckpoint = recovered[0];
+        journal.lastSnapshotEntries = recovered[1];
+        journal.cycleCount = (int) recovered[2];
+        ride.setJournal(journal);
+        return journal;
+    }
+
+    /**
+     * Sets how many records must follow a checkpoint before the next automatic one.
+     * <p>A checkpoint is also deferred until the tail reaches a quarter of the entries the
+     * previous snapshot held, so rewriting a large history is paid for by enough appends.</p>
+     *
+     * @param records Minimum records between checkpoints (0 = only explicit checkpoint() calls)
+     * @throws IllegalArgumentException if records is negative
+     */
+    public synchronized void setCheckpointRecords(long records) {
+        if (records < 0) {
+            throw new IllegalArgumentException("Checkpoint interval must not be negative (received: " + records + ")");
+        }
+        this.checkpointRecords = records;
+    }
+
+    // ------------------------------ Append (group commit) ------------------------------
+    /**
+     * Logs a visitor joining the standby line.
+     * @param visitor Visitor that was queued
+     */
+    public synchronized void logEnqueue(Visitor visitor) {
+        beginRecord(ENQUEUE);
+        putVisitor(visitor);
+        endRecord();
+    }
+
+    /**
+     * Logs a batch of visitors joining the standby line (one buffer pass, one commit check).
+     * <p>The whole batch is already queued, so an automatic checkpoint waits until every
+     * record is buffered; a snapshot taken mid-batch would be followed by the rest of the
+     * batch's records and replay those visitors twice.</p>
+     *
+     * @param visitors Array holding the queued visitors
+     * @param count Number of visitors from index 0 to log
+     */
+    public synchronized void logEnqueueAll(Visitor[] visitors, int count) {
+        for (int i = 0; i < count; i++) {
+            beginRecord(ENQUEUE);
+            putVisitor(visitors[i]);
+            sealRecord();
+        }
+        commitRecords();
+    }
+
+    /**
+     * Logs a visitor leaving the standby line.
+     * @param visitor Visitor that was removed
+     */
+    public synchronized void logRemove(Visitor visitor) {
+        beginRecord(REMOVE);
+        putString(keyOf(visitor));
+        endRecord();
+    }
+
+    /**
+     * Logs a visitor added directly to history (not via runCycle).
+     * @param visitor Visitor that was recorded
+     * @param timeMillis Time the entry was recorded
+     */
+    public synchronized void logHistory(Visitor visitor, long timeMillis) {
+        beginRecord(HISTORY_AT);
+        buffer.putLong(timeMillis);
+        putVisitor(visitor);
+        endRecord();
+    }
+
+    /**
+     * Logs one completed cycle and the riders it boarded.
+     *
+     * @param cycleNumber Completed cycle number
+     * @param timeMillis Dispatch timestamp
+     * @param riders Boarded visitors (index 0..count-1)
+     * @param fromStandby Per rider: true if polled from the standby line
+     * @param count Number of riders
+     */
+    public synchronized void logCycle(int cycleNumber, long timeMillis, Visitor[] riders, boolean[] fromStandby, int count) {
+        cycleCount = cycleNumber;
+        beginRecord(CYCLE);
+        buffer.putInt(cycleNumber).putLong(timeMillis).putInt(count);
+        for (int i = 0; i < count; i++) {
+            if (fromStandby[i]) {
+                buffer.put(FROM_STANDBY);
+                putString(keyOf(riders[i]));
+            } else {
+                buffer.put(INLINE);
+                putVisitor(riders[i]);
+            }
+        }
+        endRecord();
+    }
+
+    /**
+     * Writes and fsyncs all buffered records (one fsync for the whole group).
+     * <p>IO failures are reported and the buffered records are kept for the next attempt.</p>
+     */
+    public synchronized void sync() {
+        if (pendingRecords == 0) {
+            return;
+        }
+        try {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            channel.force(false);
+            pendingRecords = 0;
+        } catch (IOException e) {
+            buffer.compact();
+            System.err.println("[ERROR] Journal write failed (" + path + "): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes pending records and closes the journal file.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (this) {
+            sync();
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the ride's current state as a snapshot and replaces the log with it.
+     * <p>Call it from the ride's thread between operations; RideJournal also calls it
+     * itself right after appending a record, when the mutation that record describes has
+     * been applied. The new file is written and fsynced beside the log, then atomically
+     * renamed over it, so a crash leaves either the old log or the new one. On failure the
+     * old log is kept and the next automatic attempt waits for another interval.</p>
+     *
+     * @return true if the log was compacted
+     */
+    public synchronized boolean checkpoint() {
+        Path next = path.resolveSibling(path.getFileName() + ".checkpoint");
+        FileChannel compacted = null;
+        try {
+            byte[] snapshot = encodeSnapshot();
+            compacted = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader(compacted);
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + snapshot.length);
+            crc.reset();
+            crc.update(snapshot);
+            record.putInt(snapshot.length).putInt((int) crc.getValue()).put(snapshot).flip();
+            compacted.position(HEADER_BYTES);
+            while (record.hasRemaining()) {
+                compacted.write(record);
+            }
+            compacted.force(true);
+            Files.move(next, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("[ERROR] Journal checkpoint failed, keeping the full log (" + path + "): " + e.getMessage());
+            recordsSinceCheckpoint = 0; // Retry after another interval, not on every record
+            closeQuietly(compacted);
+            try {
+                Files.deleteIfExists(next);
+            } catch (IOException ignored) {
+                // Leftover file is overwritten by the next checkpoint
+            }
+            return false;
+        }
+        closeQuietly(channel);
+        channel = compacted;  // Open descriptor follows the rename
+        buffer.clear();       // Buffered records are covered by the snapshot
+        pendingRecords = 0;
+        recordsSinceCheckpoint = 0;
+        lastSnapshotEntries = encodedEntries;
+        checkpointCount++;
+        return true;
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public Path getPath() { return path; }
+    public synchronized long getCheckpointRecords() { return checkpointRecords; }
+    public synchronized long getRecordsSinceCheckpoint() { return recordsSinceCheckpoint; }
+    public synchronized long getCheckpointCount() { return checkpointCount; }
+
+    /**
+     * Encodes cycle count, standby line and history columns as a SNAPSHOT payload.
+     * <p>History entries are 18 bytes each: index into a table of distinct visitors, age,
+     * membership code, timestamp and cycle, mirroring HistoryStore's columns.</p>
+     */
+    private byte[] encodeSnapshot() throws IOException {
+        QueueSnapshot queue = ride.snapshotQueue();
+        HistoryStore history = ride.getHistoryStore();
+        int entries = history.size();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + queue.size() * 48 + entries * 20);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(SNAPSHOT);
+        out.writeInt(cycleCount);
+        out.writeInt(queue.size());
+        for (Visitor visitor : queue) {
+            writeVisitor(out, visitor);
+        }
+
+        Map<Integer, Integer> tableIndex = new HashMap<>();  // Registry ordinal -> visitor table index
+        Map<String, Integer> membershipIndex = new HashMap<>();
+        List<String> memberships = new ArrayList<>();
+        int[] visitorOf = new int[entries];
+        byte[] membershipOf = new byte[entries];
+        List<Visitor> table = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            int ordinal = history.ordinalAt(i);
+            Integer index = tableIndex.get(ordinal);
+            if (index == null) {
+                index = table.size();
+                tableIndex.put(ordinal, index);
+                table.add(history.get(i));
+            }
+            visitorOf[i] = index;
+            String membership = history.membershipAt(i);
+            Integer code = membershipIndex.get(membership);
+            if (code == null) {
+                code = memberships.size();
+                membershipIndex.put(membership, code);
+                memberships.add(membership);
+            }
+            membershipOf[i] = (byte) (int) code;
+        }
+        out.writeInt(table.size());
+        for (Visitor visitor : table) {
+            writeVisitor(out, visitor);
+        }
+        out.writeShort(memberships.size());
+        for (String membership : memberships) {
+            writeString(out, membership);
+        }
+        out.writeInt(entries);
+        for (int i = 0; i < entries; i++) {
+            out.writeInt(visitorOf[i]);
+            out.writeByte(history.ageAt(i));
+            out.writeByte(membershipOf[i]);
+            out.writeLong(history.timestampAt(i));
+            out.writeInt(history.cycleAt(i));
+        }
+        encodedEntries = (long) queue.size() + entries;
+        return bytes.toByteArray();
+    }
+
+    private static void writeVisitor(DataOutputStream out, Visitor visitor) throws IOException {
+        writeString(out, visitor.getId());
+        writeString(out, visitor.getName());
+        out.writeByte(visitor.getAge());
+        writeString(out, visitor.getVisitorId());
+        writeString(out, visitor.getMembershipType());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        channel.write(header, 0);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("[ERROR] Journal file close failed: " + e.getMessage());
+        }
+    }
+
+    private void beginRecord(byte type) {
+        if (buffer.remaining() < BUFFER_BYTES / 2) {
+            sync(); // Keep headroom for the largest record (a full cycle of inline riders)
+        }
+        buffer.position(buffer.position() + RECORD_HEADER_BYTES);
+        buffer.mark();
+        buffer.put(type);
+    }
+
+    private void endRecord() {
+        sealRecord();
+        commitRecords();
+    }
+
+    /**
+     * Writes the length and CRC of the record begun by beginRecord and counts it.
+     */
+    private void sealRecord() {
+        int end = buffer.position();
+        buffer.reset();
+        int payloadStart = buffer.position();
+        int length = end - payloadStart;
+        crc.reset();
+        crc.update(buffer.slice().limit(length));
+        buffer.putInt(payloadStart - RECORD_HEADER_BYTES, length);
+        buffer.putInt(payloadStart - RECORD_HEADER_BYTES + 4, (int) crc.getValue());
+        buffer.position(end);
+        recordsSinceCheckpoint++;
+        pendingRecords++;
+    }
+
+    /**
+     * Checkpoints if the interval is due, otherwise syncs once a group is complete.
+     * <p>Called only when every sealed record's mutation is applied and logged.</p>
+     */
+    private void commitRecords() {
+        if (checkpointRecords > 0 && recordsSinceCheckpoint >= Math.max(checkpointRecords, lastSnapshotEntries / SNAPSHOT_TAIL_RATIO)) {
+            if (checkpoint()) { // The mutations these records describe are already applied
+                return;
+            }
+        }
+        if (pendingRecords >= groupSize) {
+            sync();
+        }
+    }
+
+    private void putVisitor(Visitor visitor) {
+        putString(visitor.getId());
+        putString(visitor.getName());
+        buffer.put((byte) visitor.getAge());
+        putString(visitor.getVisitorId());
+        putString(visitor.getMembershipType());
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Key used to match a standby visitor on replay (visitorId, or CSV form without one).
+     */
+    private static String keyOf(Visitor visitor) {
+        return visitor.getVisitorId() != null ? visitor.getVisitorId() : "#" + visitor.toCsvString();
+    }
+
+    // ------------------------------ Recovery ------------------------------
+    /**
+     * Rebuilds the ride's queue, history and cycle count from the journal.
+     * <p>Design Rationale: the file is read once into a heap array and parsed in place
+     * (no stream copies; strings are decoded straight from the array);
+     * standby entries live in an array indexed by entry number with a key -> first entry
+     * map, so every record replays in O(1) and the final queue is one ordered array pass.
+     * A SNAPSHOT record replaces everything replayed before it.</p>
+     *
+     * @param recovered Out: records replayed after the last snapshot, entries in that
+     *                  snapshot, and the recovered cycle count
+     * @return long number of valid bytes (records after this offset are torn/corrupt;
+     *         0 for an empty file or a header torn while the file was being created)
+     * @throws IOException if the file cannot be read or does not start with a journal header
+     */
+    private static long replay(Path path, Ride ride, long[] recovered) throws IOException {
+        List<Visitor> entries = new ArrayList<>();                 // entry number -> visitor (null = left)
+        Map<String, Integer> firstEntry = new HashMap<>();          // key -> oldest waiting entry
+        Map<String, ArrayDeque<Integer>> laterEntries = new HashMap<>(); // key -> newer duplicates (rare)
+        List<Visitor> history = new ArrayList<>();
+        long[] historyTimes = new long[64];                        // Parallel to history
+        int[] historyCycles = new int[64];                         // Parallel to history (0 = outside a cycle)
+        int cycleCount = 0;
+        long records = 0;
+        CRC32 crc = new CRC32();
+
+        if (Files.size(path) > Integer.MAX_VALUE - 8) {
+            throw new IOException("Journal larger than 2 GB cannot be replayed (" + path + ")");
+        }
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(path)); // Heap array: strings decode in place
+        ByteBuffer expected = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+        if (file.remaining() < HEADER_BYTES) {
+            if (!file.equals(expected.limit(file.remaining()))) {
+                throw new IOException("Not a ride journal (" + path + ")");
+            }
+            return 0; // Empty or torn header: nothing was ever logged
+        }
+        if (!file.slice().limit(HEADER_BYTES).equals(expected)) {
+            throw new IOException("Not a ride journal, refusing to overwrite it (" + path + ")");
+        }
+        file.position(HEADER_BYTES);
+        long sinceSnapshot = 0;
+        long snapshotEntries = 0;
+
+        while (file.remaining() >= RECORD_HEADER_BYTES) {
+            int start = file.position();
+            int length = file.getInt();
+            int expectedCrc = file.getInt();
+            if (length <= 0 || length > file.remaining()) {
+                file.position(start);
+                break; // Torn tail
+            }
+            ByteBuffer record = file.slice().limit(length);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != expectedCrc) {
+                file.position(start);
+                break; // Corrupt record: everything after it is untrusted
+            }
+            record.rewind();
+            file.position(file.position() + length);
+
+            byte type = record.get();
+            switch (type) {
+                case ENQUEUE: {
+                    Visitor visitor = readVisitor(record);
+                    int entry = entries.size();
+                    entries.add(visitor);
+                    String key = keyOf(visitor);
+                    if (firstEntry.putIfAbsent(key, entry) != null) {
+                        laterEntries.computeIfAbsent(key, k -> new ArrayDeque<>()).offer(entry);
+                    }
+                    break;
+                }
+                case REMOVE:
+                    takeEntry(readString(record), entries, firstEntry, laterEntries);
+                    break;
+                case HISTORY:
+                case HISTORY_AT: {
+                    long time = type == HISTORY_AT ? record.getLong() : 0;
+                    if (history.size() == historyTimes.length) {
+                        historyTimes = Arrays.copyOf(historyTimes, history.size() * 2);
+                        historyCycles = Arrays.copyOf(historyCycles, history.size() * 2);
+                    }
+                    historyTimes[history.size()] = time;
+                    historyCycles[history.size()] = 0;
+                    history.add(readVisitor(record));
+                    break;
+                }
+                case SNAPSHOT: {
+                    entries.clear();
+                    firstEntry.clear();
+                    laterEntries.clear();
+                    history.clear();
+                    cycleCount = record.getInt();
+                    int queued = record.getInt();
+                    for (int i = 0; i < queued; i++) {
+                        Visitor visitor = readVisitor(record);
+                        entries.add(visitor);
+                        String key = keyOf(visitor);
+                        if (firstEntry.putIfAbsent(key, i) != null) {
+                            laterEntries.computeIfAbsent(key, k -> new ArrayDeque<>()).offer(i);
+                        }
+                    }
+                    Visitor[] table = new Visitor[record.getInt()];
+                    for (int i = 0; i < table.length; i++) {
+                        table[i] = readVisitor(record);
+                    }
+                    String[] memberships = new String[record.getShort()];
+                    for (int i = 0; i < memberships.length; i++) {
+                        memberships[i] = readString(record);
+                    }
+                    int count = record.getInt();
+                    historyTimes = new long[Math.max(64, count)];
+                    historyCycles = new int[historyTimes.length];
+                    for (int i = 0; i < count; i++) {
+                        Visitor visitor = table[record.getInt()];
+                        int age = record.get();
+                        String membership = memberships[record.get() & 0xFF];
+                        historyTimes[i] = record.getLong();
+                        historyCycles[i] = record.getInt();
+                        if (visitor.getAge() != age || !Objects.equals(visitor.getMembershipType(), membership)) {
+                            visitor = new Visitor(visitor.getId(), visitor.getName(), age, visitor.getVisitorId(), membership);
+                        }
+                        history.add(visitor);
+                    }
+                    sinceSnapshot = -1; // Incremented below: the snapshot itself is not a tail record
+                    snapshotEntries = (long) queued + count;
+                    break;
+                }
+                case CYCLE: {
+                    cycleCount = record.getInt();
+                    long time = record.getLong();
+                    int riders = record.getInt();
+                    for (int i = 0; i < riders; i++) {
+                        Visitor rider = record.get() == FROM_STANDBY
+                                ? takeEntry(readString(record), entries, firstEntry, laterEntries)
+                                : readVisitor(record);
+                        if (rider != null) {
+                            if (history.size() == historyTimes.length) {
+                                historyTimes = Arrays.copyOf(historyTimes, history.size() * 2);
+                                historyCycles = Arrays.copyOf(historyCycles, history.size() * 2);
+                            }
+                            historyTimes[history.size()] = time;
+                            historyCycles[history.size()] = cycleCount;
+                            history.add(rider);
+                        }
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown journal record type at offset " + start);
+            }
+            records++;
+            sinceSnapshot++;
+        }
+
+        List<Visitor> queue = new ArrayList<>(firstEntry.size());
+        for (Visitor visitor : entries) {
+            if (visitor != null) {
+                queue.add(visitor);
+            }
+        }
+        ride.restoreState(queue, history, historyTimes, historyCycles, cycleCount);
+        recovered[0] = sinceSnapshot;
+        recovered[1] = snapshotEntries;
+        recovered[2] = cycleCount;
+        System.out.println("[JOURNAL] Recovered " + ride.getRideName() + " from " + records + " records ("
+                + queue.size() + " queued, " + history.size() + " in history, " + cycleCount + " cycles)");
+        return file.position();
+    }
+
+    /**
+     * Removes the oldest waiting entry for a key (O(1)) and returns its visitor.
+     */
+    private static Visitor takeEntry(String key, List<Visitor> entries, Map<String, Integer> firstEntry,
+                                     Map<String, ArrayDeque<Integer>> laterEntries) {
+        Integer entry = firstEntry.remove(key);
+        if (entry == null) {
+            return null;
+        }
+        ArrayDeque<Integer> later = laterEntries.get(key);
+        if (later != null) {
+            firstEntry.put(key, later.poll());
+            if (later.isEmpty()) {
+                laterEntries.remove(key);
+            }
+        }
+        return entries.set(entry, null);
+    }
+
+    private static Visitor readVisitor(ByteBuffer record) {
+        String id = readString(record);
+        String name = readString(record);
+        int age = record.get();
+        String visitorId = readString(record);
+        String membershipType = readString(record);
+        return new Visitor(id, name, age, visitorId, membershipType);
+    }
+
+    private static String readString(ByteBuffer record) {
+        short length = record.getShort();
+        if (length < 0) {
+            return null;
+        }
+        int position = record.position();
+        record.position(position + length);
+        return new String(record.array(), record.arrayOffset() + position, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Results of one simulated park day (ParkSimulator.run).
+ * <p>Design Rationale: capacity planning compares configurations ride by ride, so the
+ * report keeps per-ride throughput, queue length and wait percentiles alongside park totals.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public final class SimulationReport {
+
+    /**
+     * Per-ride results of a simulated day.
+     */
+    public static final class RideReport {
+        private final String rideId;
+        private final String rideName;
+        private final int riders;               // Visitors dispatched
+        private final int cycles;               // Successful cycles
+        private final int failedCycles;         // Cycles with no operator or nobody to board
+        private final double throughputPerHour; // Riders per simulated hour
+        private final double meanQueueLength;   // Queue length sampled at each dispatch
+        private final int maxQueueLength;       // Longest queue seen at a dispatch
+        private final long waitP50Millis;       // Median queue wait
+        private final long waitP90Millis;       // 90th percentile queue wait
+        private final long waitP99Millis;       // 99th percentile queue wait
+        private final int unserved;             // Visitors still queued at park close
+
+        RideReport(String rideId, String rideName, int riders, int cycles, int failedCycles,
+                   double throughputPerHour, double meanQueueLength, int maxQueueLength,
+                   long waitP50Millis, long waitP90Millis, long waitP99Millis, int unserved) {
+            this.rideId = rideId;
+            this.rideName = rideName;
+            this.riders = riders;
+            this.cycles = cycles;
+            this.failedCycles = failedCycles;
+            this.throughputPerHour = throughputPerHour;
+            this.meanQueueLength = meanQueueLength;
+            this.maxQueueLength = maxQueueLength;
+            this.waitP50Millis = waitP50Millis;
+            this.waitP90Millis = waitP90Millis;
+            this.waitP99Millis = waitP99Millis;
+            this.unserved = unserved;
+        }
+
+        // ------------------------------ Getters ------------------------------
+        public String getRideId() { return rideId; }
+        public String getRideName() { return rideName; }
+        public int getRiders() { return riders; }
+        public int getCycles() { return cycles; }
+        public int getFailedCycles() { return failedCycles; }
+        public double getThroughputPerHour() { return throughputPerHour; }
+        public double getMeanQueueLength() { return meanQueueLength; }
+        public int getMaxQueueLength() { return maxQueueLength; }
+        public long getWaitP50Millis() { return waitP50Millis; }
+        public long getWaitP90Millis() { return waitP90Millis; }
+        public long getWaitP99Millis() { return waitP99Millis; }
+        public int getUnserved() { return unserved; }
+
+        @Override
+        public String toString() {
+            return String.format("%-6s %-16s riders=%6d  thr/h=%7.1f  queue(avg/max)=%7.1f/%5d  wait p50/p90/p99=%5.1f/%5.1f/%5.1f min  unserved=%d",
+                    rideId, rideName, riders, throughputPerHour, meanQueueLength, maxQueueLength,
+                    waitP50Millis / 60000.0, waitP90Millis / 60000.0, waitP99Millis / 60000.0, unserved);
+        }
+    }
+
+    private final List<RideReport> rides;
+    private final int visitors;             // Visitors who entered the park
+    private final long ridesTaken;          // Total riders dispatched across all rides
+    private final long simulatedMillis;     // Length of the simulated day
+    private final long eventsProcessed;     // Discrete events handled
+    private final long elapsedNanos;        // Wall-clock time of the run
+
+    SimulationReport(List<RideReport> rides, int visitors, long ridesTaken, long simulatedMillis,
+                     long eventsProcessed, long elapsedNanos) {
+        this.rides = Collections.unmodifiableList(rides);
+        this.visitors = visitors;
+        this.ridesTaken = ridesTaken;
+        this.simulatedMillis = simulatedMillis;
+        this.eventsProcessed = eventsProcessed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public List<RideReport> getRides() { return rides; }
+    public int getVisitors() { return visitors; }
+    public long getRidesTaken() { return ridesTaken; }
+    public long getSimulatedMillis() { return simulatedMillis; }
+    public long getEventsProcessed() { return eventsProcessed; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Finds the report of one ride.
+     * @param rideId Ride ID
+     * @return RideReport, or null if the ride was not simulated
+     */
+    public RideReport getRide(String rideId) {
+        for (RideReport ride : rides) {
+            if (ride.getRideId().equals(rideId)) {
+                return ride;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a multi-line summary (park totals, then one line per ride).
+     * @return Formatted report
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format(
+                "[SIMULATION] %d visitors | %d rides taken | %.1f h simulated | %d events in %.2f s%n",
+                visitors, ridesTaken, simulatedMillis / 3_600_000.0, eventsProcessed, elapsedNanos / 1e9));
+        for (RideReport ride : rides) {
+            sb.append("  ").append(ride).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
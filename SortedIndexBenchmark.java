@@ -0,0 +1,56 @@
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark: cost of keeping the sorted history index (RideComparator order) up to date.
+ * <p>Scenarios, by history size:
+ * - append: HistoryStore.append with no sorted index
+ * - append + index: the same appends with the index maintained (sortHistory switched on)
+ * - index bytes per entry: estimatedBytes with the index minus without, per entry
+ * </p>
+ * <p>Visitors arrive in random sort order (random membership, age and name), which is the
+ * worst case for block splits. Run: {@code java -Xms2g -Xmx2g SortedIndexBenchmark}.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class SortedIndexBenchmark {
+    private static final int[] HISTORY_SIZES = {10_000, 1_000_000};
+    private static final String[] NAMES = {"Ada", "Ben", "Cleo", "Dan", "Eve", "Finn", "Gus", "Hana"};
+
+    public static void main(String[] args) {
+        System.out.println("[BENCHMARK] Sorted history index, by history entries");
+        for (int entries : HISTORY_SIZES) {
+            Visitor[] riders = createRiders(entries);
+            HistoryStore[] store = new HistoryStore[1];
+
+            double plain = Benchmark.measure(() -> store[0] = new HistoryStore(),
+                    i -> store[0].append(riders[i], i, i / 30), entries);
+            Benchmark.report("append", entries, plain);
+
+            double indexed = Benchmark.measure(() -> {
+                store[0] = new HistoryStore();
+                store[0].setSortOrder(RideComparator.HISTORY_ORDER);
+            }, i -> store[0].append(riders[i], i, i / 30), entries);
+            Benchmark.report("append + index", entries, indexed);
+
+            long withIndex = store[0].estimatedBytes();
+            store[0].setSortOrder(null);
+            long columns = store[0].estimatedBytes();
+            System.out.printf("  %-36s %,12d %,14.1f bytes/entry (columns: %.1f)%n", "index bytes per entry", entries,
+                    (double) (withIndex - columns) / entries, (double) columns / entries);
+        }
+    }
+
+    /**
+     * Builds distinct riders with random sort keys.
+     */
+    private static Visitor[] createRiders(int count) {
+        SplittableRandom random = new SplittableRandom(25);
+        Visitor[] riders = new Visitor[count];
+        for (int i = 0; i < count; i++) {
+            riders[i] = new Visitor("P" + i, NAMES[random.nextInt(NAMES.length)] + " " + random.nextInt(1000),
+                    5 + random.nextInt(66), "SX-" + i, random.nextInt(4) == 0 ? "VIP" : "Regular");
+        }
+        return riders;
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * FIFO visitor queue with lazy deletion, built for mass abandonment (e.g. a ride breakdown).
+ * <p>Design Choices:
+ * - remove(Object) only marks the visitor's entry as abandoned (a tombstone) in O(1),
+ *   found through a visitor index (Visitor.equals: visitorId, else identity); nothing is
+ *   unlinked or shifted
+ * - poll()/peek() discard tombstones lazily when they reach the head of the line
+ * - When tombstones outnumber compactionRatio x live entries (and at least minTombstones),
+ *   the backing ArrayDeque is compacted in one O(n) pass, so memory stays bounded
+ * </p>
+ * <p>A visitor can only wait once in the line (offer returns false for an equal visitor).
+ * Not thread-safe.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class TombstoneVisitorQueue extends AbstractQueue<Visitor> {
+
+    /**
+     * Queue slot; abandoned slots stay in the deque until skipped or compacted.
+     */
+    private static final class Entry {
+        final Visitor visitor;
+        boolean abandoned;
+
+        Entry(Visitor visitor) {
+            this.visitor = visitor;
+        }
+    }
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>(); // Live and abandoned, in arrival order
+    private final Map<Visitor, Entry> liveIndex = new HashMap<>(); // Visitor -> live entry
+    private final double compactionRatio;                          // Tombstones allowed per live entry
+    private final int minTombstones;                               // Never compact below this many
+    private int tombstoneCount;                                    // Abandoned entries still in the deque
+    private long compactionCount;                                  // Compactions performed
+
+    /**
+     * Creates a queue that compacts once tombstones exceed live entries (min 256 tombstones).
+     */
+    public TombstoneVisitorQueue() {
+        this(1.0, 256);
+    }
+
+    /**
+     * Creates a queue with a custom compaction threshold.
+     *
+     * @param compactionRatio Compact when tombstones > ratio x live entries (positive)
+     * @param minTombstones Minimum tombstones before compaction is considered (non-negative)
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public TombstoneVisitorQueue(double compactionRatio, int minTombstones) {
+        if (!(compactionRatio > 0) || minTombstones < 0) {
+            throw new IllegalArgumentException("Compaction ratio must be positive and minimum tombstones non-negative");
+        }
+        this.compactionRatio = compactionRatio;
+        this.minTombstones = minTombstones;
+    }
+
+    @Override
+    public boolean offer(Visitor visitor) {
+        if (visitor == null) {
+            throw new NullPointerException("TombstoneVisitorQueue does not accept null visitors");
+        }
+        if (liveIndex.containsKey(visitor)) {
+            return false;
+        }
+        Entry entry = new Entry(visitor);
+        entries.offer(entry);
+        liveIndex.put(visitor, entry);
+        return true;
+    }
+
+    @Override
+    public Visitor poll() {
+        Entry entry;
+        while ((entry = entries.poll()) != null) {
+            if (entry.abandoned) {
+                tombstoneCount--; // Lazy deletion: tombstone leaves with the head
+                continue;
+            }
+            liveIndex.remove(entry.visitor);
+            return entry.visitor;
+        }
+        return null;
+    }
+
+    @Override
+    public Visitor peek() {
+        Entry entry;
+        while ((entry = entries.peek()) != null && entry.abandoned) {
+            entries.poll();
+            tombstoneCount--;
+        }
+        return entry == null ? null : entry.visitor;
+    }
+
+    /**
+     * Marks a visitor as abandoned in O(1); the slot is skipped later by poll().
+     *
+     * @param o Visitor leaving the line
+     * @return true if the visitor was waiting
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Visitor)) {
+            return false;
+        }
+        Entry entry = liveIndex.get(o);
+        if (entry == null) {
+            return false;
+        }
+        abandon(entry);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Visitor && liveIndex.containsKey(o);
+    }
+
+    /**
+     * Gets the number of visitors still waiting (excludes tombstones).
+     * @return int live entry count
+     */
+    @Override
+    public int size() {
+        return liveIndex.size();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        liveIndex.clear();
+        tombstoneCount = 0;
+    }
+
+    /**
+     * Iterates live visitors in arrival order (iterator.remove() abandons in O(1)).
+     * @return Iterator skipping tombstones
+     */
+    @Override
+    public Iterator<Visitor> iterator() {
+        Iterator<Entry> slots = entries.iterator();
+        return new Iterator<Visitor>() {
+            private Entry next = advance();
+            private Entry last;
+
+            private Entry advance() {
+                while (slots.hasNext()) {
+                    Entry entry = slots.next();
+                    if (!entry.abandoned) {
+                        return entry;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Visitor next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = advance();
+                return last.visitor;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null || last.abandoned) {
+                    throw new IllegalStateException();
+                }
+                liveIndex.remove(last.visitor);
+                last.abandoned = true;
+                tombstoneCount++; // No compaction here: it would invalidate this iterator
+                last = null;
+            }
+        };
+    }
+
+    // ------------------------------ Counters ------------------------------
+    public int getLiveCount() { return liveIndex.size(); }
+    public int getTombstoneCount() { return tombstoneCount; }
+    public long getCompactionCount() { return compactionCount; }
+
+    private void abandon(Entry entry) {
+        liveIndex.remove(entry.visitor);
+        entry.abandoned = true;
+        tombstoneCount++;
+        if (tombstoneCount >= minTombstones && tombstoneCount > compactionRatio * liveIndex.size()) {
+            entries.removeIf(e -> e.abandoned);
+            tombstoneCount = 0;
+            compactionCount++;
+        }
+    }
+}
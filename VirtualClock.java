@@ -0,0 +1,60 @@
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Manually advanced clock for simulations (Ride.setClock).
+ * <p>Design Rationale: a discrete-event simulation jumps from event to event, so rides must
+ * read simulated time rather than wall time; the clock only moves when the simulator says so.
+ * Not thread-safe: owned by the single simulation thread.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class VirtualClock extends Clock {
+    private long millis;    // Current simulated time (epoch milliseconds)
+
+    /**
+     * Creates a clock at the given simulated time.
+     * @param startMillis Initial time in epoch milliseconds
+     */
+    public VirtualClock(long startMillis) {
+        this.millis = startMillis;
+    }
+
+    /**
+     * Moves the clock to a new time.
+     * @param millis New time in epoch milliseconds (must not go backwards)
+     * @throws IllegalArgumentException if millis is before the current time
+     */
+    public void setMillis(long millis) {
+        if (millis < this.millis) {
+            throw new IllegalArgumentException("Virtual clock cannot go backwards (" + millis + " < " + this.millis + ")");
+        }
+        this.millis = millis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        if (ZoneOffset.UTC.equals(zone)) {
+            return this;
+        }
+        throw new UnsupportedOperationException("VirtualClock is UTC only");
+    }
+}
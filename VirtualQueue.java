@@ -0,0 +1,168 @@
+import java.util.ArrayDeque;
+
+/**
+ * Return-time (virtual) queue for a ride, scheduled on a hashed timing wheel.
+ * <p>Design Choices:
+ * - Return windows: each window admits up to guestsPerWindow reservations, then the next
+ *   window opens; guests are told when to come back instead of standing in line. Windows
+ *   never overlap (a new one starts at the previous end, or now if that has passed), so
+ *   returning guests never outnumber the seats of one window
+ * - Hashed timing wheel: a reservation is dropped into the slot for its return tick with a
+ *   revolution count, so schedule() is O(1) and each tick only touches its own slot
+ * - Ready list: reservations whose window has opened wait here for runCycle; no-shows and
+ *   cancellations are skipped lazily in pollReady() (O(1) amortised)
+ * </p>
+ * <p>Not thread-safe: call from the thread that runs the ride's cycles.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class VirtualQueue {
+    private final long windowMillis;              // Length of one return window
+    private final int guestsPerWindow;            // Reservations issued per window
+    private final long tickMillis;                // Timing-wheel resolution
+    private final ArrayDeque<Reservation>[] wheel; // Slots of pending reservations
+    private final int mask;                       // wheel.length - 1
+    private final ArrayDeque<Reservation> ready = new ArrayDeque<>(); // Window open, awaiting runCycle
+
+    private long wheelTimeMillis = -1;            // Time covered by the wheel so far
+    private int cursor;                           // Slot of the most recently processed tick
+    private int pending;                          // Reservations still on the wheel
+    private long nextWindowStart = -1;            // Start of the window currently being filled (-1 = none yet)
+    private int windowFill;                       // Reservations issued in that window
+    private long expiredCount;                    // No-shows dropped so far
+
+    /**
+     * Creates a virtual queue with a one-second tick and a 4096-slot wheel.
+     *
+     * @param windowMillis Length of each return window (positive)
+     * @param guestsPerWindow Reservations per window, e.g. maxRidersPerCycle x cycles per window
+     */
+    public VirtualQueue(long windowMillis, int guestsPerWindow) {
+        this(windowMillis, guestsPerWindow, 1000, 4096);
+    }
+
+    /**
+     * Creates a virtual queue with a custom timing wheel.
+     *
+     * @param windowMillis Length of each return window (positive)
+     * @param guestsPerWindow Reservations per window (positive)
+     * @param tickMillis Wheel resolution in milliseconds (positive)
+     * @param wheelSlots Number of wheel slots (rounded up to a power of two)
+     * @throws IllegalArgumentException if any argument is not positive
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public VirtualQueue(long windowMillis, int guestsPerWindow, long tickMillis, int wheelSlots) {
+        if (windowMillis <= 0 || guestsPerWindow <= 0 || tickMillis <= 0 || wheelSlots <= 0) {
+            throw new IllegalArgumentException("Virtual queue settings must be positive");
+        }
+        this.windowMillis = windowMillis;
+        this.guestsPerWindow = guestsPerWindow;
+        this.tickMillis = tickMillis;
+        int slots = wheelSlots == 1 ? 1 : Integer.highestOneBit(wheelSlots - 1) << 1;
+        this.wheel = new ArrayDeque[slots];
+        for (int i = 0; i < slots; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Issues the next free return window to a visitor (O(1)).
+     *
+     * @param visitor Guest to reserve for (non-null)
+     * @param nowMillis Current time
+     * @return Reservation with the assigned window
+     */
+    public Reservation reserve(Visitor visitor, long nowMillis) {
+        advance(nowMillis); // Keep wheel time current so the delay below is measured from now
+        if (nextWindowStart < 0 || nextWindowStart + windowMillis <= nowMillis) {
+            nextWindowStart = nowMillis; // Last window has closed: open a fresh one now
+            windowFill = 0;
+        } else if (windowFill >= guestsPerWindow) {
+            // Current window full (even if it is still open): roll to the one after it
+            nextWindowStart += windowMillis;
+            windowFill = 0;
+        }
+        windowFill++;
+        Reservation reservation = new Reservation(visitor, nextWindowStart, nextWindowStart + windowMillis);
+        schedule(reservation);
+        return reservation;
+    }
+
+    /**
+     * Moves every reservation whose window has opened by nowMillis onto the ready list.
+     * <p>Processes one wheel slot per elapsed tick; when the wheel is empty it jumps
+     * straight to nowMillis.</p>
+     *
+     * @param nowMillis Current time
+     */
+    public void advance(long nowMillis) {
+        if (wheelTimeMillis < 0) {
+            wheelTimeMillis = nowMillis;
+            return;
+        }
+        while (wheelTimeMillis + tickMillis <= nowMillis) {
+            if (pending == 0) {
+                wheelTimeMillis += (nowMillis - wheelTimeMillis) / tickMillis * tickMillis;
+                break;
+            }
+            wheelTimeMillis += tickMillis;
+            cursor = (cursor + 1) & mask;
+            ArrayDeque<Reservation> slot = wheel[cursor];
+            for (int i = slot.size(); i > 0; i--) {
+                Reservation reservation = slot.poll();
+                if (reservation.remainingRounds == 0) {
+                    pending--;
+                    ready.offer(reservation);
+                } else {
+                    reservation.remainingRounds--;
+                    slot.offer(reservation);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the next boardable visitor whose window is open, skipping no-shows.
+     *
+     * @param nowMillis Current time (reservations that expired before it are dropped)
+     * @return Visitor to board, or null if none is ready
+     */
+    public Visitor pollReady(long nowMillis) {
+        Reservation reservation;
+        while ((reservation = ready.poll()) != null) {
+            if (reservation.isCancelled()) {
+                continue;
+            }
+            if (reservation.getExpiresAtMillis() <= nowMillis) {
+                expiredCount++;
+                continue;
+            }
+            return reservation.getVisitor();
+        }
+        return null;
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public int getReadyCount() { return ready.size(); }
+    public int getPendingCount() { return pending; }
+    public long getExpiredCount() { return expiredCount; }
+    public long getWindowMillis() { return windowMillis; }
+    public int getGuestsPerWindow() { return guestsPerWindow; }
+
+    /**
+     * Places a reservation in the wheel slot for its return tick (O(1)).
+     */
+    private void schedule(Reservation reservation) {
+        long delay = reservation.getReturnAtMillis() - wheelTimeMillis;
+        if (delay <= 0) {
+            ready.offer(reservation); // Window already open
+            return;
+        }
+        long ticks = (delay + tickMillis - 1) / tickMillis;
+        reservation.remainingRounds = (int) ((ticks - 1) / wheel.length);
+        wheel[(int) ((cursor + ticks) & mask)].offer(reservation);
+        pending++;
+    }
+}
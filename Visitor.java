@@ -85,7 +85,38 @@ public class Visitor extends Person {
             throw new IllegalArgumentException("Invalid age: " + parts[2]);
         }
 
-        return new Visitor(parts[0], parts[1], age, parts[2], parts[4]);
+        return new Visitor(parts[0], parts[1], age, parts[3], parts[4]);
+    }
+
+    /**
+     * Two visitors are equal when they share the same visitorId.
+     * <p>Design Rationale: the same guest may be represented by different objects (app
+     * retries, CSV imports), so queues, history checks and hash sets compare visitorId.
+     * Visitors without a visitorId fall back to identity. Do not change the visitorId of
+     * a visitor that is held in a hash-based collection.</p>
+     *
+     * @param o Object to compare
+     * @return true if o is a Visitor with the same non-null visitorId (or the same object)
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Visitor)) {
+            return false;
+        }
+        Visitor other = (Visitor) o;
+        return visitorId != null && visitorId.equals(other.visitorId);
+    }
+
+    /**
+     * Hash code consistent with equals (visitorId, or identity when it is null).
+     * @return int hash code
+     */
+    @Override
+    public int hashCode() {
+        return visitorId != null ? visitorId.hashCode() : System.identityHashCode(this);
     }
 
     /**
@@ -0,0 +1,100 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every distinct visitor a dense int ordinal.
+ * <p>Design Choices:
+ * - Identity follows Visitor.equals (visitorId); a private copy of the first Visitor seen
+ *   for an id is kept as the record, so history stores keep 4-byte ordinals, not object
+ *   graphs, and later changes to the caller's object never rewrite history
+ * - Visitors without a visitorId are told apart by object identity (as Visitor.equals
+ *   does): each such object gets its own ordinal and is kept as its own map key
+ * - Ordinals are dense (0, 1, 2, ...), so per-ride indexes can be plain arrays/bit sets
+ * - Lookups are lock-free (ConcurrentHashMap by visitor, volatile array by ordinal), and so
+ *   is registering a visitor seen before; only a first sighting takes this registry's lock
+ * - Each HistoryStore (so each Ride) owns a registry by default: rides never share a lock,
+ *   and a ride's visitors are released with the ride or by clear()
+ * </p>
+ * <p>Entries are removed only by clear(): the registry grows with the number of distinct
+ * visitors, not with the number of rides taken.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class VisitorRegistry {
+    private final Map<Visitor, Integer> ordinals = new ConcurrentHashMap<>(); // Visitor -> ordinal
+    private volatile Visitor[] visitors = new Visitor[64];          // Ordinal -> visitor record (private copies)
+    private volatile int count;                                     // Ordinals issued (written under the lock)
+
+    /**
+     * Returns the visitor's ordinal, registering it on first sight.
+     * @param visitor Visitor (non-null)
+     * @return int ordinal (stable until clear())
+     */
+    public int register(Visitor visitor) {
+        Integer ordinal = ordinals.get(visitor); // Lock-free for every visitor seen before
+        return ordinal != null ? ordinal : registerNew(visitor);
+    }
+
+    /**
+     * Slow path of register(): issues the next ordinal under the lock.
+     */
+    private synchronized int registerNew(Visitor visitor) {
+        Integer ordinal = ordinals.get(visitor);
+        if (ordinal != null) {
+            return ordinal; // Registered by another thread meanwhile
+        }
+        Visitor record = new Visitor(visitor.getId(), visitor.getName(), visitor.getAge(),
+                visitor.getVisitorId(), visitor.getMembershipType());
+        Visitor[] table = visitors;
+        int next = count;
+        if (next == table.length) {
+            table = Arrays.copyOf(table, next * 2);
+        }
+        table[next] = record;
+        visitors = table; // Volatile write publishes the new slot to lock-free readers
+        ordinals.put(visitor.getVisitorId() == null ? visitor : record, next); // After the slot, so a found ordinal always resolves
+        count = next + 1;
+        return next;
+    }
+
+    /**
+     * Looks up a visitor's ordinal without registering it.
+     * @param visitor Visitor to look up
+     * @return int ordinal, or -1 if the visitor was never registered
+     */
+    public int ordinalOf(Visitor visitor) {
+        Integer ordinal = ordinals.get(visitor);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Gets the registry's record for an ordinal (lock-free).
+     * <p>The record is the registry's own copy: read it, never modify or hand it out
+     * (HistoryStore.get returns fresh copies).</p>
+     *
+     * @param ordinal Ordinal returned by register()
+     * @return Visitor registered under that ordinal
+     */
+    public Visitor visitor(int ordinal) {
+        return visitors[ordinal];
+    }
+
+    /**
+     * Gets the number of distinct visitors registered.
+     * @return int registered visitor count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Forgets every visitor; ordinals restart at 0 (owners must drop ordinals they hold).
+     */
+    public synchronized void clear() {
+        ordinals.clear();
+        visitors = new Visitor[64];
+        count = 0;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Incremental wait-time estimator driven by ride dispatch timestamps.
+ * <p>Design Choices:
+ * - Exponentially weighted moving average (EWMA) of the interval between dispatches,
+ *   so recent operating speed dominates and old history decays automatically
+ * - recordDispatch() is O(1) and keeps no history, so it is safe to call on every cycle
+ * - estimateWaitMillis() is O(1) for any queue position (signboards poll it every second)
+ * </p>
+ * <p>Thread Safety: one writer (the thread running runCycle) and any number of readers;
+ * readers may observe a value from the previous cycle, which is acceptable for displays.</p>
+ *
+ * @author HD Developer
+ * @version 1.0
+ */
+public class WaitTimeEstimator {
+    /** Returned when fewer than two dispatches have been observed. */
+    public static final long UNKNOWN_WAIT = -1;
+
+    private final double alpha;                   // Smoothing factor (0 < alpha <= 1)
+    private volatile long lastDispatchMillis = -1; // Timestamp of the latest dispatch
+    private volatile double intervalMillis = Double.NaN; // EWMA of the dispatch interval
+    private volatile double ridersPerCycle = Double.NaN; // EWMA of riders loaded per cycle
+    private volatile long dispatchCount;          // Dispatches observed
+
+    /**
+     * Creates an estimator with the default smoothing factor (0.2).
+     */
+    public WaitTimeEstimator() {
+        this(0.2);
+    }
+
+    /**
+     * Creates an estimator with a custom smoothing factor.
+     * <p>Higher alpha reacts faster to slowdowns; lower alpha gives steadier signboards.</p>
+     *
+     * @param alpha Weight of the newest sample (0 < alpha <= 1)
+     * @throws IllegalArgumentException if alpha is out of range
+     */
+    public WaitTimeEstimator(double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1] (received: " + alpha + ")");
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Records one dispatch and updates the averages incrementally (O(1)).
+     *
+     * @param timeMillis Dispatch timestamp (milliseconds, non-decreasing)
+     * @param riders Riders loaded by this dispatch
+     */
+    public void recordDispatch(long timeMillis, int riders) {
+        if (lastDispatchMillis >= 0) {
+            double sample = Math.max(0, timeMillis - lastDispatchMillis);
+            intervalMillis = Double.isNaN(intervalMillis) ? sample : intervalMillis + alpha * (sample - intervalMillis);
+        }
+        ridersPerCycle = Double.isNaN(ridersPerCycle) ? riders : ridersPerCycle + alpha * (riders - ridersPerCycle);
+        lastDispatchMillis = timeMillis;
+        dispatchCount++;
+    }
+
+    /**
+     * Estimates the wait for a queue position (O(1)).
+     * <p>Formula: cycles until the position boards (ceil(position / seatsPerCycle))
+     * multiplied by the smoothed dispatch interval.</p>
+     *
+     * @param position 1-based queue position
+     * @param seatsPerCycle Seats available per dispatch (e.g. maxRidersPerCycle)
+     * @return long wait in milliseconds, or UNKNOWN_WAIT before two dispatches
+     */
+    public long estimateWaitMillis(int position, int seatsPerCycle) {
+        double interval = intervalMillis;
+        if (Double.isNaN(interval) || seatsPerCycle <= 0) {
+            return UNKNOWN_WAIT;
+        }
+        long cyclesAhead = ((long) Math.max(position, 1) + seatsPerCycle - 1) / seatsPerCycle;
+        return Math.round(cyclesAhead * interval);
+    }
+
+    // ------------------------------ Getters ------------------------------
+    public double getAlpha() { return alpha; }
+    public long getLastDispatchMillis() { return lastDispatchMillis; }
+    public double getIntervalMillis() { return intervalMillis; }
+    public double getRidersPerCycle() { return ridersPerCycle; }
+    public long getDispatchCount() { return dispatchCount; }
+}